@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.serializer.support.SerializationDelegate;
+
+/**
+ * Java config for the application caches of the <code>ClinicService</code>: bounded Caffeine caches recording the
+ * statistics that Spring Boot publishes as the <code>cache.*</code> metrics.
+ * <p>
+ * The caching advice runs outside the transaction advice, so a service method puts and evicts entries once its own
+ * transaction has committed; within a caller's transaction the cache manager defers puts until that commits, and
+ * evicts both at once and after the commit, so that the rest of the transaction reads its own writes.
+ * <p>
+ * The caches store values by value: an entry is a serialized copy and every hit returns a new instance, so a caller
+ * that edits the entity it got, for instance before saving it, never changes what other callers read.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String VETS = "vets";
+
+    public static final String ALL_VETS = "allVets";
+
+    public static final String PET_TYPES = "petTypes";
+
+    public static final String ALL_PET_TYPES = "allPetTypes";
+
+    public static final String ALL_SPECIALTIES = "allSpecialties";
+
+    public static final String OWNERS = "owners";
+
+    private static final List<String> REFERENCE_DATA_CACHES = List.of(VETS, ALL_VETS, PET_TYPES, ALL_PET_TYPES, ALL_SPECIALTIES);
+
+    @Bean
+    CacheManager cacheManager(@Value("${petclinic.cache.reference-data-spec:maximumSize=1000,expireAfterWrite=1h}") String referenceDataSpec,
+                              @Value("${petclinic.cache.owners-spec:maximumSize=10000,expireAfterWrite=10m}") String ownersSpec) {
+        CaffeineCacheManager cacheManager = new StoreByValueCaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.from(referenceDataSpec).recordStats());
+        // a fixed set of caches: an unknown cache name fails instead of creating an unbounded cache
+        cacheManager.setCacheNames(REFERENCE_DATA_CACHES);
+        cacheManager.registerCustomCache(OWNERS, Caffeine.from(ownersSpec).recordStats().build());
+        return new EagerlyEvictingCacheManagerProxy(cacheManager);
+    }
+
+    private static class EagerlyEvictingCacheManagerProxy extends TransactionAwareCacheManagerProxy {
+
+        EagerlyEvictingCacheManagerProxy(CacheManager targetCacheManager) {
+            super(targetCacheManager);
+        }
+
+        @Override
+        public Cache getCache(String name) {
+            Cache cache = super.getCache(name);
+            return cache == null ? null : new EagerlyEvictingCacheDecorator(((TransactionAwareCacheDecorator) cache).getTargetCache());
+        }
+
+    }
+
+    /**
+     * Evicts from the target cache at once, then again after the commit, which drops any entry a concurrent reader
+     * put from the data committed before.
+     */
+    private static class EagerlyEvictingCacheDecorator extends TransactionAwareCacheDecorator {
+
+        EagerlyEvictingCacheDecorator(Cache targetCache) {
+            super(targetCache);
+        }
+
+        @Override
+        public void evict(Object key) {
+            getTargetCache().evict(key);
+            super.evict(key);
+        }
+
+        @Override
+        public void clear() {
+            getTargetCache().clear();
+            super.clear();
+        }
+
+    }
+
+    private static class StoreByValueCaffeineCacheManager extends CaffeineCacheManager {
+
+        @Override
+        protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            return new StoreByValueCaffeineCache(name, cache, isAllowNullValues());
+        }
+
+    }
+
+    /**
+     * Serializes values when they are stored and deserializes them on every read, as the store-by-value mode of
+     * Spring's <code>ConcurrentMapCache</code> does.
+     */
+    private static class StoreByValueCaffeineCache extends CaffeineCache {
+
+        private final SerializationDelegate serialization = new SerializationDelegate(CacheConfig.class.getClassLoader());
+
+        StoreByValueCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                  boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        protected Object toStoreValue(Object userValue) {
+            Object storeValue = super.toStoreValue(userValue);
+            if (storeValue == NullValue.INSTANCE) {
+                return storeValue;
+            }
+            try {
+                return this.serialization.serializeToByteArray(storeValue);
+            } catch (Throwable ex) {
+                throw new IllegalArgumentException("Failed to serialize cache value '" + userValue + "'", ex);
+            }
+        }
+
+        @Override
+        protected Object fromStoreValue(Object storeValue) {
+            if (storeValue instanceof byte[] bytes) {
+                try {
+                    return super.fromStoreValue(this.serialization.deserializeFromByteArray(bytes));
+                } catch (Throwable ex) {
+                    throw new IllegalArgumentException("Failed to deserialize cache value", ex);
+                }
+            }
+            return super.fromStoreValue(storeValue);
+        }
+
+    }
+
+}
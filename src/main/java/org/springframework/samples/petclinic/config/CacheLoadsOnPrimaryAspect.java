@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Runs the {@link org.springframework.cache.annotation.Cacheable} methods with their reads on the primary. The caches
+ * are shared by all clients and only evicted when a write commits, so a value loaded from a replica that has not
+ * applied the write yet would stay cached, and be served to the writing client too, until it expires.
+ *
+ * @see ReadReplicaRoutingDataSource
+ */
+@Aspect
+class CacheLoadsOnPrimaryAspect {
+
+    @Around("@annotation(org.springframework.cache.annotation.Cacheable)")
+    public Object loadOnPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean outer = ReadReplicaRoutingDataSource.startReadingForCache();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadReplicaRoutingDataSource.stopReadingForCache(outer);
+        }
+    }
+
+}
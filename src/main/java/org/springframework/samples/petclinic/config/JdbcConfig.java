@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Java config for the shared JDBC infrastructure of the jdbc repositories: a single
+ * {@link NamedParameterJdbcTemplate} whose parsed-SQL cache is sized by <code>petclinic.jdbc.sql-cache-limit</code>,
+ * over a data source that times the preparation of every statement, see {@link MeteredDataSource}.
+ */
+@Configuration
+@Profile("jdbc")
+public class JdbcConfig {
+
+    @Bean
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate(JdbcTemplate jdbcTemplate,
+                                                          @Value("${petclinic.jdbc.sql-cache-limit:1024}") int sqlCacheLimit) {
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        namedParameterJdbcTemplate.setCacheLimit(sqlCacheLimit);
+        return namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Wraps the <code>dataSource</code> bean, which the templates and the transaction manager share, in a
+     * {@link MeteredDataSource}. Behind the {@link LazyConnectionDataSourceProxy} of the read replicas, its target is
+     * wrapped instead, so that fetching the connection on the first statement is not timed as its preparation.
+     */
+    @Bean
+    static BeanPostProcessor meteredDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!beanName.equals("dataSource") || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+                if (dataSource instanceof LazyConnectionDataSourceProxy lazyDataSource) {
+                    lazyDataSource.setTargetDataSource(
+                        new MeteredDataSource(lazyDataSource.getTargetDataSource(), registry));
+                    return lazyDataSource;
+                }
+                return new MeteredDataSource(dataSource, registry);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@link DataSource} recording the time its connections spend in <code>prepareStatement</code> and
+ * <code>prepareCall</code> as the <code>petclinic.jdbc.statement.preparation</code> timer. Since it times the
+ * connections, every statement counts, whether it is prepared by a <code>NamedParameterJdbcTemplate</code>, its
+ * <code>JdbcTemplate</code>, a batch update or a streaming callback.
+ *
+ * @see JdbcConfig
+ */
+class MeteredDataSource extends DelegatingDataSource {
+
+    static final String PREPARATION_TIMER = "petclinic.jdbc.statement.preparation";
+
+    private final Timer preparationTimer;
+
+    MeteredDataSource(DataSource targetDataSource, MeterRegistry meterRegistry) {
+        super(targetDataSource);
+        this.preparationTimer = Timer.builder(PREPARATION_TIMER)
+            .description("Time spent preparing JDBC statements")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return meteredProxy(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return meteredProxy(super.getConnection(username, password));
+    }
+
+    private Connection meteredProxy(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                String name = method.getName();
+                boolean preparation = name.equals("prepareStatement") || name.equals("prepareCall");
+                long start = preparation ? System.nanoTime() : 0;
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getTargetException();
+                } finally {
+                    if (preparation) {
+                        this.preparationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+            });
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Java config of the <code>read-replicas</code> profile, for any repository layer: the application
+ * {@link DataSource} sends the connections of read-only transactions to the replica pools configured in
+ * {@link ReadReplicaProperties} and everything else, including the schema initialization, to the
+ * <code>spring.datasource</code> primary.
+ */
+@Configuration
+@Profile("read-replicas")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    ReadReplicaRoutingDataSource readReplicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                              ReadReplicaProperties properties,
+                                                              SqlInitializationProperties sqlInitializationProperties,
+                                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReadReplicaProperties.Replica replica : properties.replicas()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.url())
+                .username(replica.username())
+                .password(replica.password())
+                .build();
+            dataSource.setPoolName("replica-" + replicas.size());
+            meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            if (properties.initializeReplicas()) {
+                new SqlDataSourceScriptDatabaseInitializer(dataSource, sqlInitializationProperties).initializeDatabase();
+            }
+            replicas.add(dataSource);
+        }
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicas, properties.replicationLagFallback(),
+            ReadReplicaConfig::currentClient);
+    }
+
+    /**
+     * The client whose own writes the current thread's reads must see: the authenticated user, else the address the
+     * request comes from, else, outside of requests, a key shared by all background work.
+     */
+    static Object currentClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+            && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return "address:" + attributes.getRequest().getRemoteAddr();
+        }
+        return "background";
+    }
+
+    @Bean
+    CacheLoadsOnPrimaryAspect cacheLoadsOnPrimaryAspect() {
+        return new CacheLoadsOnPrimaryAspect();
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the <code>read-replicas</code> profile, bound from <code>petclinic.datasource.*</code>.
+ *
+ * @param replicas                the replica connections; read-only transactions use the primary when there are none
+ * @param replicationLagFallback  how long after a committed write read-only transactions still use the primary, so
+ *                                that they see the write although the replicas have not caught up yet
+ * @param initializeReplicas      whether to run the <code>spring.sql.init</code> scripts on the replicas too, for
+ *                                local setups whose replicas are independent in-memory databases
+ */
+@ConfigurationProperties("petclinic.datasource")
+public record ReadReplicaProperties(@DefaultValue List<Replica> replicas,
+                                    @DefaultValue("2s") Duration replicationLagFallback,
+                                    boolean initializeReplicas) {
+
+    public record Replica(String url, String username, String password) {
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes the connections of read-only transactions to the replicas, in turn, and all other connections to the
+ * primary. For a configurable time after a client's write transaction has committed, that client's read-only
+ * transactions use the primary too, so that it does not miss its own write before the write reaches the replicas.
+ * Other clients keep reading from the replicas, except for the reads that fill the application caches: those always
+ * use the primary, see {@link CacheLoadsOnPrimaryAspect}, since a cached copy of a row a replica has not caught up
+ * with yet would be served to the writing client as well.
+ * <p>
+ * The transaction's read-only flag is only known once the transaction has started, so this data source must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that fetches the connection on
+ * the first statement.
+ *
+ * @see ReadReplicaConfig
+ */
+class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> readingForCache = new ThreadLocal<>();
+
+    private final List<? extends DataSource> replicas;
+
+    private final List<String> replicaKeys = new ArrayList<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Supplier<Object> currentClient;
+
+    /**
+     * The clients that committed a write less than the replication-lag fallback ago.
+     */
+    private final Cache<Object, Boolean> recentWriters;
+
+    /**
+     * @param currentClient the key of the client the current thread works for, see
+     *                      {@link ReadReplicaConfig#currentClient()}
+     */
+    ReadReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Duration replicationLagFallback,
+                                 Supplier<Object> currentClient) {
+        this.replicas = replicas;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            this.replicaKeys.add(key);
+            targetDataSources.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        this.currentClient = currentClient;
+        this.recentWriters = Caffeine.newBuilder()
+            .expireAfterWrite(replicationLagFallback)
+            .maximumSize(100_000)
+            .build();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                Object client = this.currentClient.get();
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_COMMITTED) {
+                            recentWriters.put(client, Boolean.TRUE);
+                        }
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        if (this.replicaKeys.isEmpty() || readingForCache.get() != null
+            || this.recentWriters.getIfPresent(this.currentClient.get()) != null) {
+            return PRIMARY;
+        }
+        return this.replicaKeys.get(Math.floorMod(this.nextReplica.getAndIncrement(), this.replicaKeys.size()));
+    }
+
+    /**
+     * Send the read-only transactions of the current thread to the primary until {@link #stopReadingForCache(boolean)}.
+     *
+     * @return whether the thread was reading for a cache already, to be passed to {@link #stopReadingForCache(boolean)}
+     */
+    static boolean startReadingForCache() {
+        boolean outer = readingForCache.get() != null;
+        readingForCache.set(Boolean.TRUE);
+        return outer;
+    }
+
+    static void stopReadingForCache(boolean outer) {
+        if (!outer) {
+            readingForCache.remove();
+        }
+    }
+
+    /**
+     * Close the replica pools, which are created for this data source only; the primary is a bean of its own.
+     */
+    public void close() throws Exception {
+        for (DataSource replica : this.replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+}
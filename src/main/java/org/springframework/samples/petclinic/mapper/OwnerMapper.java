@@ -2,12 +2,15 @@ package org.springframework.samples.petclinic.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.rest.dto.OwnerDto;
 import org.springframework.samples.petclinic.rest.dto.OwnerFieldsDto;
+import org.springframework.samples.petclinic.util.Embed;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Maps Owner & OwnerDto using Mapstruct
@@ -17,10 +20,36 @@ public interface OwnerMapper {
 
     OwnerDto toOwnerDto(Owner owner);
 
+    /**
+     * Maps an owner whose pets were not loaded, leaving them out of the DTO.
+     */
+    @Named("withoutPets")
+    @Mapping(target = "pets", expression = "java(null)")
+    OwnerDto toOwnerDtoWithoutPets(Owner owner);
+
+    /**
+     * Maps an owner whose pets were loaded without their visits, leaving the visits out of the pet DTOs.
+     */
+    @Named("withoutVisits")
+    @Mapping(target = "pets", qualifiedByName = "withoutVisits")
+    OwnerDto toOwnerDtoWithoutVisits(Owner owner);
+
+    /**
+     * Maps an owner loaded with the given associations, without touching the others.
+     */
+    default OwnerDto toOwnerDto(Owner owner, Set<Embed> embeds) {
+        if (!embeds.contains(Embed.PETS)) {
+            return toOwnerDtoWithoutPets(owner);
+        }
+        return embeds.contains(Embed.VISITS) ? toOwnerDto(owner) : toOwnerDtoWithoutVisits(owner);
+    }
+
+    @Mapping(target = "version", ignore = true)
     Owner toOwner(OwnerDto ownerDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "pets", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Owner toOwner(OwnerFieldsDto ownerDto);
 
     List<OwnerDto> toOwnerDtoCollection(Collection<Owner> ownerCollection);
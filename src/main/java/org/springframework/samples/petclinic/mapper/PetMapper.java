@@ -2,13 +2,17 @@ package org.springframework.samples.petclinic.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.rest.dto.BulkPetFieldsDto;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
 import org.springframework.samples.petclinic.rest.dto.PetFieldsDto;
 import org.springframework.samples.petclinic.rest.dto.PetTypeDto;
+import org.springframework.samples.petclinic.util.Embed;
 
 import java.util.Collection;
+import java.util.Set;
 
 /**
  * Map Pet & PetDto using mapstruct
@@ -19,20 +23,44 @@ public interface PetMapper {
     @Mapping(source = "owner.id", target = "ownerId")
     PetDto toPetDto(Pet pet);
 
+    /**
+     * Maps a pet whose visits were not loaded, leaving them out of the DTO.
+     */
+    @Named("withoutVisits")
+    @Mapping(source = "owner.id", target = "ownerId")
+    @Mapping(target = "visits", expression = "java(null)")
+    PetDto toPetDtoWithoutVisits(Pet pet);
+
+    /**
+     * Maps a pet loaded with the given associations, without touching the others.
+     */
+    default PetDto toPetDto(Pet pet, Set<Embed> embeds) {
+        return embeds.contains(Embed.VISITS) ? toPetDto(pet) : toPetDtoWithoutVisits(pet);
+    }
+
     Collection<PetDto> toPetsDto(Collection<Pet> pets);
 
     Collection<Pet> toPets(Collection<PetDto> pets);
 
     @Mapping(source = "ownerId", target = "owner.id")
+    @Mapping(target = "version", ignore = true)
     Pet toPet(PetDto petDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "owner", ignore = true)
     @Mapping(target = "visits", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Pet toPet(PetFieldsDto petFieldsDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(source = "ownerId", target = "owner.id")
+    @Mapping(target = "visits", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Pet toPet(BulkPetFieldsDto bulkPetFieldsDto);
+
     PetTypeDto toPetTypeDto(PetType petType);
 
+    @Mapping(target = "version", ignore = true)
     PetType toPetType(PetTypeDto petTypeDto);
 
     Collection<PetTypeDto> toPetTypeDtos(Collection<PetType> petTypes);
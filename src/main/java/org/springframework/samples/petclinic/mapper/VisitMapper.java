@@ -3,10 +3,12 @@ package org.springframework.samples.petclinic.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.rest.dto.BulkVisitFieldsDto;
 import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.rest.dto.VisitFieldsDto;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Map Visit & VisitDto using mapstruct
@@ -14,15 +16,22 @@ import java.util.Collection;
 @Mapper(uses = PetMapper.class)
 public interface VisitMapper {
     @Mapping(source = "petId", target = "pet.id")
+    @Mapping(target = "version", ignore = true)
     Visit toVisit(VisitDto visitDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "pet", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Visit toVisit(VisitFieldsDto visitFieldsDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(source = "petId", target = "pet.id")
+    @Mapping(target = "version", ignore = true)
+    Visit toVisit(BulkVisitFieldsDto bulkVisitFieldsDto);
+
     @Mapping(source = "pet.id", target = "petId")
     VisitDto toVisitDto(Visit visit);
 
-    Collection<VisitDto> toVisitsDto(Collection<Visit> visits);
+    List<VisitDto> toVisitsDto(Collection<Visit> visits);
 
 }
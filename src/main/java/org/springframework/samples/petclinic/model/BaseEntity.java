@@ -15,25 +15,42 @@
  */
 package org.springframework.samples.petclinic.model;
 
+import java.io.Serializable;
+
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
- * Simple JavaBean domain object with an id property. Used as a base class for objects needing this property.
+ * Simple JavaBean domain object with an id and a version property. Used as a base class for objects needing these
+ * properties. Serializable, so that the application caches can hold copies of entities rather than shared instances.
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
  */
 @MappedSuperclass
-public class BaseEntity {
+public class BaseEntity implements Serializable {
+    /**
+     * Drawn from a per-entity sequence named after its table (<code>owners_seq</code>, <code>types_seq</code>, ...)
+     * with Hibernate's default allocation size of 50, so ids are assigned without a round trip per insert and inserts
+     * can be JDBC-batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     protected Integer id;
 
+    /**
+     * Incremented by every update and checked by it, so that an update based on a stale copy fails instead of
+     * overwriting a concurrent one. A primitive, so that a reference built from an id alone is still taken for a
+     * stored entity rather than a transient one.
+     */
+    @Version
+    protected int version;
+
     public Integer getId() {
         return id;
     }
@@ -41,6 +58,15 @@ public class BaseEntity {
     public void setId(Integer id) {
         this.id = id;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @JsonIgnore
     public boolean isNew() {
         return this.id == null;
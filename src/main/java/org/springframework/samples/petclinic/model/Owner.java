@@ -36,7 +36,37 @@ import java.util.*;
  */
 @Entity
 @Table(name = "owners")
+@NamedEntityGraph(name = Owner.SUMMARY_GRAPH)
+@NamedEntityGraph(name = Owner.WITH_PETS_GRAPH,
+    attributeNodes = @NamedAttributeNode(value = "pets", subgraph = "pet"),
+    subgraphs = @NamedSubgraph(name = "pet", attributeNodes = @NamedAttributeNode("type")))
+@NamedEntityGraph(name = Owner.FULL_GRAPH,
+    attributeNodes = @NamedAttributeNode(value = "pets", subgraph = "pet"),
+    subgraphs = @NamedSubgraph(name = "pet", attributeNodes = {@NamedAttributeNode("type"), @NamedAttributeNode("visits")}))
 public class Owner extends Person {
+
+    /**
+     * Fetch plan for the owner's own columns only.
+     */
+    public static final String SUMMARY_GRAPH = "owner-summary";
+
+    /**
+     * Fetch plan for the owner with its pets and their types, but without visits.
+     */
+    public static final String WITH_PETS_GRAPH = "owner-with-pets";
+
+    /**
+     * Fetch plan for the owner with its pets, their types and their visits, as serialized by the REST layer.
+     */
+    public static final String FULL_GRAPH = "owner-full";
+
+    /**
+     * Lower-cased copy of the last name, kept in step by {@link #setLastName(String)}. Last name searches match
+     * this indexed column, so that they ignore case without a function call on every row.
+     */
+    @Column(name = "last_name_lower")
+    private String lastNameLower;
+
     @Column(name = "address")
     @NotEmpty
     private String address;
@@ -51,9 +81,26 @@ public class Owner extends Person {
     @Pattern(regexp = "^[0-9]{10}$", message = "Phone number must be exactly 10 digits")
     private String telephone;
 
-    @OneToMany(cascade = CascadeType.ALL, mappedBy = "owner", fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.ALL, mappedBy = "owner")
     private Set<Pet> pets;
 
+    @Override
+    public void setLastName(String lastName) {
+        super.setLastName(lastName);
+        this.lastNameLower = normalizeLastName(lastName);
+    }
+
+    public String getLastNameLower() {
+        return this.lastNameLower;
+    }
+
+    /**
+     * Normalize a last name, or a last name prefix to search for, the way the last name search column holds it.
+     */
+    public static String normalizeLastName(String lastName) {
+        return lastName == null ? null : lastName.toLowerCase(Locale.ROOT);
+    }
+
     public String getAddress() {
         return this.address;
     }
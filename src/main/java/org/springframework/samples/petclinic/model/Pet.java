@@ -33,8 +33,22 @@ import java.util.*;
  */
 @Entity
 @Table(name = "pets")
+@NamedEntityGraph(name = Pet.SUMMARY_GRAPH,
+    attributeNodes = {@NamedAttributeNode("type"), @NamedAttributeNode("owner")})
+@NamedEntityGraph(name = Pet.WITH_VISITS_GRAPH,
+    attributeNodes = {@NamedAttributeNode("type"), @NamedAttributeNode("visits")})
 public class Pet extends NamedEntity {
 
+    /**
+     * Fetch plan for the pet with its type and owner, but without visits.
+     */
+    public static final String SUMMARY_GRAPH = "pet-summary";
+
+    /**
+     * Fetch plan for the pet with its type and visits, as serialized by the REST layer.
+     */
+    public static final String WITH_VISITS_GRAPH = "pet-with-visits";
+
     @Column(name = "birth_date", columnDefinition = "DATE")
     private LocalDate birthDate;
 
@@ -46,7 +60,7 @@ public class Pet extends NamedEntity {
     @JoinColumn(name = "owner_id")
     private Owner owner;
 
-    @OneToMany(cascade = CascadeType.ALL, mappedBy = "pet", fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.ALL, mappedBy = "pet")
     private Set<Visit> visits;
 
     public LocalDate getBirthDate() {
@@ -15,15 +15,26 @@
  */
 package org.springframework.samples.petclinic.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * @author Juergen Hoeller
  *         Can be Cat, Dog, Hamster...
  */
 @Entity
 @Table(name = "types")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = PetType.CACHE_REGION)
 public class PetType extends NamedEntity {
 
+    /**
+     * Second-level cache region of pet types, configured in <code>hibernate-jcache.conf</code>.
+     */
+    public static final String CACHE_REGION = "pet-types";
+
 }
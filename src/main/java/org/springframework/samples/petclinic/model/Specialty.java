@@ -15,9 +15,13 @@
  */
 package org.springframework.samples.petclinic.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * Models a {@link Vet Vet's} specialty (for example, dentistry).
  *
@@ -25,6 +29,13 @@ import jakarta.persistence.Table;
  */
 @Entity
 @Table(name = "specialties")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Specialty.CACHE_REGION)
 public class Specialty extends NamedEntity {
 
+    /**
+     * Second-level cache region of specialties, configured in <code>hibernate-jcache.conf</code>.
+     */
+    public static final String CACHE_REGION = "specialties";
+
 }
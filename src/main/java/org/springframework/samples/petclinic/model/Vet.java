@@ -16,6 +16,8 @@
 package org.springframework.samples.petclinic.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.beans.support.MutableSortDefinition;
 import org.springframework.beans.support.PropertyComparator;
 
@@ -33,9 +35,22 @@ import java.util.*;
  */
 @Entity
 @Table(name = "vets")
+@NamedEntityGraph(name = Vet.WITH_SPECIALTIES_GRAPH, attributeNodes = @NamedAttributeNode("specialties"))
 public class Vet extends Person {
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    /**
+     * Fetch plan for the vet with its specialties, as serialized by the REST layer.
+     */
+    public static final String WITH_SPECIALTIES_GRAPH = "vet-with-specialties";
+
+    /**
+     * Second-level cache region of the specialty ids of each vet, configured in <code>hibernate-jcache.conf</code>.
+     * The specialties themselves are cached in {@link Specialty#CACHE_REGION}.
+     */
+    public static final String SPECIALTIES_CACHE_REGION = "vet-specialties";
+
+    @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SPECIALTIES_CACHE_REGION)
     @JoinTable(name = "vet_specialties", joinColumns = @JoinColumn(name = "vet_id"),
         inverseJoinColumns = @JoinColumn(name = "specialty_id"))
     private Set<Specialty> specialties;
@@ -16,10 +16,14 @@
 package org.springframework.samples.petclinic.repository;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.BaseEntity;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.samples.petclinic.util.OwnerSearch;
 
 /**
  * Repository class for <code>Owner</code> domain objects All method names are compliant with Spring Data naming
@@ -52,6 +56,14 @@ public interface OwnerRepository {
      */
     Owner findById(int id) throws DataAccessException;
 
+    /**
+     * Retrieve those of the given ids that belong to an <code>Owner</code>, with one query.
+     *
+     * @param ids the ids to look up
+     * @return the ids of the existing owners
+     */
+    List<Integer> findIds(Collection<Integer> ids) throws DataAccessException;
+
 
     /**
      * Save an <code>Owner</code> to the data store, either inserting or updating it.
@@ -60,6 +72,14 @@ public interface OwnerRepository {
      * @see BaseEntity#isNew
      */
     void save(Owner owner) throws DataAccessException;
+
+    /**
+     * Save <code>Owner</code>s to the data store in batches, either inserting or updating each of them.
+     *
+     * @param owners the <code>Owner</code>s to save
+     * @see BaseEntity#isNew
+     */
+    void saveAll(Collection<Owner> owners) throws DataAccessException;
     
     /**
      * Retrieve <code>Owner</code>s from the data store, returning all owners 
@@ -68,6 +88,42 @@ public interface OwnerRepository {
      * found)
      */
 	Collection<Owner> findAll() throws DataAccessException;
+
+    /**
+     * Retrieve the next page of <code>Owner</code>s in id order, with the requested associations: at most
+     * <code>limit</code> owners whose id is greater than <code>afterId</code>.
+     *
+     * @param afterId the id of the last owner of the previous page, or 0 for the first page
+     * @param limit the maximum number of owners to return
+     * @param embeds the associations to load; the pets' visits are only loaded together with the pets
+     * @return a <code>List</code> of <code>Owner</code>s ordered by id (or an empty <code>List</code> if none found)
+     */
+    List<Owner> findAfter(int afterId, int limit, Set<Embed> embeds) throws DataAccessException;
+
+    /**
+     * Retrieve the next page of <code>Owner</code>s whose last name <i>starts</i> with the given name in id order, with the requested associations: at most <code>limit</code>
+     * owners whose id is greater than <code>afterId</code>.
+     *
+     * @param lastName Value to search for
+     * @param afterId the id of the last owner of the previous page, or 0 for the first page
+     * @param limit the maximum number of owners to return
+     * @param embeds the associations to load, see {@link #findAfter(int, int, Set)}
+     * @return a <code>List</code> of <code>Owner</code>s ordered by id (or an empty <code>List</code> if none found)
+     */
+    List<Owner> findByLastNameAfter(String lastName, int afterId, int limit, Set<Embed> embeds) throws DataAccessException;
+
+    /**
+     * Retrieve the next page of <code>Owner</code>s matching a search, in the order of the search, with the requested
+     * associations: at most <code>limit</code> owners following the given position.
+     *
+     * @param search the filters and order of the search
+     * @param after the position of the last owner of the previous page, or <code>null</code> for the first page
+     * @param limit the maximum number of owners to return
+     * @param embeds the associations to load, see {@link #findAfter(int, int, Set)}
+     * @return a <code>List</code> of <code>Owner</code>s in the order of the search (or an empty <code>List</code> if
+     * none found)
+     */
+    List<Owner> search(OwnerSearch search, OwnerSearch.After after, int limit, Set<Embed> embeds) throws DataAccessException;
 	
     /**
      * Delete an <code>Owner</code> to the data store by <code>Owner</code>.
@@ -17,11 +17,14 @@ package org.springframework.samples.petclinic.repository;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.BaseEntity;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.util.Embed;
 
 /**
  * Repository class for <code>Pet</code> domain objects All method names are compliant with Spring Data naming
@@ -51,6 +54,22 @@ public interface PetRepository {
      */
     Pet findById(int id) throws DataAccessException;
 
+    /**
+     * Retrieve those of the given ids that belong to a <code>Pet</code>, with one query.
+     *
+     * @param ids the ids to look up
+     * @return the ids of the existing pets
+     */
+    List<Integer> findIds(Collection<Integer> ids) throws DataAccessException;
+
+    /**
+     * Retrieve the ids of the <code>Owner</code>s of the given <code>Pet</code>s.
+     *
+     * @param petIds the ids of the pets
+     * @return the distinct owner ids (ids of unknown pets are left out)
+     */
+    List<Integer> findOwnerIds(Collection<Integer> petIds) throws DataAccessException;
+
     /**
      * Save a <code>Pet</code> to the data store, either inserting or updating it.
      *
@@ -58,6 +77,14 @@ public interface PetRepository {
      * @see BaseEntity#isNew
      */
     void save(Pet pet) throws DataAccessException;
+
+    /**
+     * Save <code>Pet</code>s to the data store in batches, either inserting or updating each of them.
+     *
+     * @param pets the <code>Pet</code>s to save
+     * @see BaseEntity#isNew
+     */
+    void saveAll(Collection<Pet> pets) throws DataAccessException;
     
     /**
      * Retrieve <code>Pet</code>s from the data store, returning all owners 
@@ -67,6 +94,26 @@ public interface PetRepository {
      */
 	Collection<Pet> findAll() throws DataAccessException;
 
+    /**
+     * Retrieve the next page of <code>Pet</code>s in id order, with their type, their owner and the requested
+     * associations: at most <code>limit</code> pets whose id is greater than <code>afterId</code>.
+     *
+     * @param afterId the id of the last pet of the previous page, or 0 for the first page
+     * @param limit the maximum number of pets to return
+     * @param embeds the associations to load; only {@link Embed#VISITS} applies to pets
+     * @return a <code>List</code> of <code>Pet</code>s ordered by id (or an empty <code>List</code> if none found)
+     */
+    List<Pet> findAfter(int afterId, int limit, Set<Embed> embeds) throws DataAccessException;
+
+    /**
+     * Hand every <code>Pet</code> in id order to the given action while the rows are read, without holding the whole
+     * table in memory. Pets carry their type and visits; their owner may only carry its id. Must be called within a
+     * transaction.
+     *
+     * @param action the action to perform on each <code>Pet</code>
+     */
+    void streamAll(Consumer<? super Pet> action) throws DataAccessException;
+
     /**
      * Delete an <code>Pet</code> to the data store by <code>Pet</code>.
      *
@@ -16,6 +16,7 @@
 package org.springframework.samples.petclinic.repository;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Vet;
@@ -38,6 +39,16 @@ public interface VetRepository {
      * @return a <code>Collection</code> of <code>Vet</code>s
      */
     Collection<Vet> findAll() throws DataAccessException;
+
+    /**
+     * Retrieve the next page of <code>Vet</code>s in id order, with their associations: at most <code>limit</code>
+     * vets whose id is greater than <code>afterId</code>.
+     *
+     * @param afterId the id of the last vet of the previous page, or 0 for the first page
+     * @param limit the maximum number of vets to return
+     * @return a <code>List</code> of <code>Vet</code>s ordered by id (or an empty <code>List</code> if none found)
+     */
+    List<Vet> findAfter(int afterId, int limit) throws DataAccessException;
     
 	Vet findById(int id) throws DataAccessException;
 
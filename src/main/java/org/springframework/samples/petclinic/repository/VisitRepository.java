@@ -17,6 +17,7 @@ package org.springframework.samples.petclinic.repository;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.BaseEntity;
@@ -42,12 +43,38 @@ public interface VisitRepository {
      */
     void save(Visit visit) throws DataAccessException;
 
+    /**
+     * Save <code>Visit</code>s to the data store in batches, either inserting or updating each of them.
+     *
+     * @param visits the <code>Visit</code>s to save
+     * @see BaseEntity#isNew
+     */
+    void saveAll(Collection<Visit> visits) throws DataAccessException;
+
     List<Visit> findByPetId(Integer petId);
     
 	Visit findById(int id) throws DataAccessException;
 	
 	Collection<Visit> findAll() throws DataAccessException;
 
+    /**
+     * Retrieve the next page of <code>Visit</code>s in id order, with their associations: at most <code>limit</code>
+     * visits whose id is greater than <code>afterId</code>.
+     *
+     * @param afterId the id of the last visit of the previous page, or 0 for the first page
+     * @param limit the maximum number of visits to return
+     * @return a <code>List</code> of <code>Visit</code>s ordered by id (or an empty <code>List</code> if none found)
+     */
+    List<Visit> findAfter(int afterId, int limit) throws DataAccessException;
+
+    /**
+     * Hand every <code>Visit</code> in id order to the given action while the rows are read, without holding the whole
+     * table in memory. Visits carry their pet, which may only carry its id. Must be called within a transaction.
+     *
+     * @param action the action to perform on each <code>Visit</code>
+     */
+    void streamAll(Consumer<? super Visit> action) throws DataAccessException;
+
 	void delete(Visit visit) throws DataAccessException;
 
 }
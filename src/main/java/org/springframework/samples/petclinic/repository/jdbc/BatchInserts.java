@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.samples.petclinic.model.BaseEntity;
+
+/**
+ * Saves entities with a single JDBC batch for all the new ones, which then get the ids generated by the database;
+ * entities that are already persistent are updated one by one, as each update is checked against their version.
+ */
+final class BatchInserts {
+
+    private BatchInserts() {
+    }
+
+    static <T extends BaseEntity> void saveAll(NamedParameterJdbcTemplate namedParameterJdbcTemplate, String insertSql,
+                                               Collection<T> entities, Function<T, SqlParameterSource> parameters,
+                                               Consumer<T> update) {
+        List<T> newEntities = new ArrayList<>();
+        for (T entity : entities) {
+            if (entity.isNew()) {
+                newEntities.add(entity);
+            } else {
+                update.accept(entity);
+            }
+        }
+        if (newEntities.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = newEntities.stream().map(parameters).toArray(SqlParameterSource[]::new);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        namedParameterJdbcTemplate.batchUpdate(insertSql, batch, keyHolder, new String[] {"id"});
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != newEntities.size()) {
+            throw new DataRetrievalFailureException(
+                "Expected " + newEntities.size() + " generated keys but the driver returned " + keys.size());
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            // the only column is the id, whatever name the driver gives it
+            Number key = (Number) keys.get(i).values().iterator().next();
+            newEntities.get(i).setId(key.intValue());
+        }
+    }
+
+}
@@ -19,25 +19,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.repository.OwnerRepository;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.samples.petclinic.util.EntityIndex;
 import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.samples.petclinic.util.OwnerSearch;
 import org.springframework.stereotype.Repository;
 
-import javax.sql.DataSource;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * A simple JDBC-based implementation of the {@link OwnerRepository} interface.
@@ -55,18 +60,30 @@ import java.util.Map;
 @Profile("jdbc")
 public class JdbcOwnerRepositoryImpl implements OwnerRepository {
 
+    private static final JdbcOwnerRowMapper OWNER_ROW_MAPPER = new JdbcOwnerRowMapper();
+
+    private static final JdbcPetTypeRowMapper PET_TYPE_ROW_MAPPER = new JdbcPetTypeRowMapper();
+
+    private static final JdbcPetRowMapper PET_ROW_MAPPER = new JdbcPetRowMapper();
+
+    /**
+     * Maximum number of owner ids bound into a single <code>IN</code> clause when loading pets and visits.
+     */
+    private static final int OWNER_BATCH_SIZE = 500;
+
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     private SimpleJdbcInsert insertOwner;
 
     @Autowired
-    public JdbcOwnerRepositoryImpl(DataSource dataSource) {
+    public JdbcOwnerRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
 
-        this.insertOwner = new SimpleJdbcInsert(dataSource)
+        this.insertOwner = new SimpleJdbcInsert(namedParameterJdbcTemplate.getJdbcTemplate())
             .withTableName("owners")
             .usingGeneratedKeyColumns("id");
+        this.insertOwner.compile();
 
-        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
 
     }
 
@@ -79,13 +96,13 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
     @Override
     public Collection<Owner> findByLastName(String lastName) throws DataAccessException {
         Map<String, Object> params = new HashMap<>();
-        params.put("lastName", lastName + "%");
+        params.put("lastName", Owner.normalizeLastName(lastName) + "%");
         List<Owner> owners = this.namedParameterJdbcTemplate.query(
-            "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE last_name like :lastName",
+            "SELECT id, first_name, last_name, address, city, telephone, version FROM owners WHERE last_name_lower like :lastName",
             params,
-            BeanPropertyRowMapper.newInstance(Owner.class)
+            OWNER_ROW_MAPPER
         );
-        loadOwnersPetsAndVisits(owners);
+        loadOwnersPets(owners, Embed.ALL);
         return owners;
     }
 
@@ -100,9 +117,9 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
             Map<String, Object> params = new HashMap<>();
             params.put("id", id);
             owner = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE id= :id",
+                "SELECT id, first_name, last_name, address, city, telephone, version FROM owners WHERE id= :id",
                 params,
-                BeanPropertyRowMapper.newInstance(Owner.class)
+                OWNER_ROW_MAPPER
             );
         } catch (EmptyResultDataAccessException ex) {
             throw new ObjectRetrievalFailureException(Owner.class, id);
@@ -111,19 +128,16 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
         return owner;
     }
 
+    @Override
+    public List<Integer> findIds(Collection<Integer> ids) throws DataAccessException {
+        return this.namedParameterJdbcTemplate.queryForList(
+            "SELECT id FROM owners WHERE id IN (:ids)",
+            Map.of("ids", ids),
+            Integer.class);
+    }
+
     public void loadPetsAndVisits(final Owner owner) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("id", owner.getId());
-        final List<JdbcPet> pets = this.namedParameterJdbcTemplate.query(
-            "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id, visits.id as visit_id, visit_date, description, visits.pet_id as visits_pet_id FROM pets LEFT OUTER JOIN visits ON pets.id = visits.pet_id WHERE owner_id=:id ORDER BY pets.id",
-            params,
-            new JdbcPetVisitExtractor()
-        );
-        Collection<PetType> petTypes = getPetTypes();
-        for (JdbcPet pet : pets) {
-            pet.setType(EntityUtils.getById(petTypes, PetType.class, pet.getTypeId()));
-            owner.addPet(pet);
-        }
+        loadOwnersPets(Collections.singletonList(owner), Embed.ALL);
     }
 
     @Override
@@ -133,63 +147,188 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
             Number newKey = this.insertOwner.executeAndReturnKey(parameterSource);
             owner.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update(
-                "UPDATE owners SET first_name=:firstName, last_name=:lastName, address=:address, " +
-                    "city=:city, telephone=:telephone WHERE id=:id",
+            int updated = this.namedParameterJdbcTemplate.update(
+                "UPDATE owners SET first_name=:firstName, last_name=:lastName, last_name_lower=:lastNameLower, address=:address, " +
+                    "city=:city, telephone=:telephone, version=version+1 WHERE id=:id AND version=:version",
                 parameterSource);
+            if (updated == 0) {
+                throw new ObjectOptimisticLockingFailureException(Owner.class, owner.getId());
+            }
+            owner.setVersion(owner.getVersion() + 1);
         }
     }
 
+    @Override
+    public void saveAll(Collection<Owner> owners) throws DataAccessException {
+        BatchInserts.saveAll(this.namedParameterJdbcTemplate,
+            "INSERT INTO owners (first_name, last_name, last_name_lower, address, city, telephone) " +
+                "VALUES (:firstName, :lastName, :lastNameLower, :address, :city, :telephone)",
+            owners, BeanPropertySqlParameterSource::new, this::save);
+    }
+
     public Collection<PetType> getPetTypes() throws DataAccessException {
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM types ORDER BY name", new HashMap<String, Object>(),
-            BeanPropertyRowMapper.newInstance(PetType.class));
+            "SELECT id, name, version FROM types ORDER BY name", new HashMap<String, Object>(),
+            PET_TYPE_ROW_MAPPER);
     }
 
     /**
-     * Loads the {@link Pet} and {@link Visit} data for the supplied {@link List} of {@link Owner Owners}.
+     * Loads the {@link Pet} data for the supplied {@link List} of {@link Owner Owners}, together with their
+     * {@link Visit} data if requested.
+     * <p>
+     * Pets and visits are fetched with one joined query per batch of {@link #OWNER_BATCH_SIZE} owner ids and the pet
+     * types are read only once, so the number of round trips does not depend on the number of owners. Without
+     * visits, the pets are read from their own table.
      *
      * @param owners the list of owners for whom the pet and visit data should be loaded
-     * @see #loadPetsAndVisits(Owner)
+     * @param embeds the associations to load; nothing is loaded without {@link Embed#PETS}
      */
-    private void loadOwnersPetsAndVisits(List<Owner> owners) {
+    private void loadOwnersPets(List<Owner> owners, Set<Embed> embeds) {
+        if (owners.isEmpty() || !embeds.contains(Embed.PETS)) {
+            return;
+        }
+        boolean withVisits = embeds.contains(Embed.VISITS);
+        EntityIndex<Owner> ownersById = EntityUtils.indexById(owners, Owner.class);
+        EntityIndex<PetType> petTypesById = EntityUtils.indexById(getPetTypes(), PetType.class);
+        List<Integer> ownerIds = new ArrayList<>(owners.size());
         for (Owner owner : owners) {
-            loadPetsAndVisits(owner);
+            ownerIds.add(owner.getId());
+        }
+        for (int from = 0; from < ownerIds.size(); from += OWNER_BATCH_SIZE) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("ownerIds", ownerIds.subList(from, Math.min(from + OWNER_BATCH_SIZE, ownerIds.size())));
+            final List<JdbcPet> pets;
+            if (withVisits) {
+                pets = this.namedParameterJdbcTemplate.query(
+                    "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id, pets.version as pet_version, visits.id as visit_id, visit_date, description, visits.version as visit_version, visits.pet_id as visits_pet_id FROM pets LEFT OUTER JOIN visits ON pets.id = visits.pet_id WHERE owner_id IN (:ownerIds) ORDER BY pets.id",
+                    params,
+                    new JdbcPetVisitExtractor()
+                );
+            } else {
+                pets = this.namedParameterJdbcTemplate.query(
+                    "SELECT id as pets_id, name, birth_date, type_id, owner_id, version as pet_version FROM pets WHERE owner_id IN (:ownerIds) ORDER BY id",
+                    params,
+                    PET_ROW_MAPPER
+                );
+            }
+            for (JdbcPet pet : pets) {
+                pet.setType(petTypesById.getById(pet.getTypeId()));
+                ownersById.getById(pet.getOwnerId()).addPet(pet);
+            }
         }
     }
 
 	@Override
 	public Collection<Owner> findAll() throws DataAccessException {
 		List<Owner> owners = this.namedParameterJdbcTemplate.query(
-	            "SELECT id, first_name, last_name, address, city, telephone FROM owners",
+	            "SELECT id, first_name, last_name, address, city, telephone, version FROM owners",
 	            new HashMap<String, Object>(),
-	            BeanPropertyRowMapper.newInstance(Owner.class));
-		for (Owner owner : owners) {
-            loadPetsAndVisits(owner);
-        }
+	            OWNER_ROW_MAPPER);
+		loadOwnersPets(owners, Embed.ALL);
 	    return owners;
 	}
 
+	@Override
+	public List<Owner> findAfter(int afterId, int limit, Set<Embed> embeds) throws DataAccessException {
+		Map<String, Object> params = new HashMap<>();
+		params.put("afterId", afterId);
+		params.put("limit", limit);
+		List<Owner> owners = this.namedParameterJdbcTemplate.query(
+	            "SELECT id, first_name, last_name, address, city, telephone, version FROM owners WHERE id > :afterId ORDER BY id LIMIT :limit",
+	            params,
+	            OWNER_ROW_MAPPER);
+		loadOwnersPets(owners, embeds);
+		return owners;
+	}
+
+	@Override
+	public List<Owner> findByLastNameAfter(String lastName, int afterId, int limit, Set<Embed> embeds) throws DataAccessException {
+		Map<String, Object> params = new HashMap<>();
+		params.put("lastName", Owner.normalizeLastName(lastName) + "%");
+		params.put("afterId", afterId);
+		params.put("limit", limit);
+		List<Owner> owners = this.namedParameterJdbcTemplate.query(
+	            "SELECT id, first_name, last_name, address, city, telephone, version FROM owners WHERE last_name_lower like :lastName AND id > :afterId ORDER BY id LIMIT :limit",
+	            params,
+	            OWNER_ROW_MAPPER);
+		loadOwnersPets(owners, embeds);
+		return owners;
+	}
+
+	/**
+	 * Reads the page of owners in one query over the <code>owners</code> table, the pet filters being a semi-join
+	 * that does not multiply the owner rows, then loads the requested associations.
+	 */
+	@Override
+	public List<Owner> search(OwnerSearch search, OwnerSearch.After after, int limit, Set<Embed> embeds) throws DataAccessException {
+		List<String> conditions = new ArrayList<>();
+		Map<String, Object> params = new HashMap<>();
+		if (search.lastName() != null) {
+			conditions.add("last_name_lower LIKE :lastName");
+			params.put("lastName", Owner.normalizeLastName(search.lastName()) + "%");
+		}
+		if (search.city() != null) {
+			conditions.add("city = :city");
+			params.put("city", search.city());
+		}
+		if (search.telephone() != null) {
+			conditions.add("telephone = :telephone");
+			params.put("telephone", search.telephone());
+		}
+		if (search.petName() != null || search.petType() != null) {
+			StringBuilder pets = new StringBuilder(
+				"EXISTS (SELECT 1 FROM pets JOIN types ON pets.type_id = types.id WHERE pets.owner_id = owners.id");
+			if (search.petName() != null) {
+				pets.append(" AND pets.name LIKE :petName");
+				params.put("petName", search.petName() + "%");
+			}
+			if (search.petType() != null) {
+				pets.append(" AND types.name = :petType");
+				params.put("petType", search.petType());
+			}
+			conditions.add(pets.append(")").toString());
+		}
+		String column = switch (search.sortKey()) {
+			case ID -> null;
+			case LAST_NAME -> "last_name";
+			case CITY -> "city";
+		};
+		String comparison = search.descending() ? "<" : ">";
+		String direction = search.descending() ? " DESC" : "";
+		if (after != null) {
+			if (column == null) {
+				conditions.add("id " + comparison + " :afterId");
+			} else {
+				// the inclusive bound on the sort column alone lets the (column, id) index seek to the position
+				conditions.add(column + " " + comparison + "= :afterValue AND (" + column + " " + comparison + " :afterValue OR id " + comparison + " :afterId)");
+				params.put("afterValue", after.value());
+			}
+			params.put("afterId", after.id());
+		}
+		params.put("limit", limit);
+		List<Owner> owners = this.namedParameterJdbcTemplate.query(
+	            "SELECT id, first_name, last_name, address, city, telephone, version FROM owners" +
+	                (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+	                " ORDER BY " + (column == null ? "" : column + direction + ", ") + "id" + direction + " LIMIT :limit",
+	            params,
+	            OWNER_ROW_MAPPER);
+		loadOwnersPets(owners, embeds);
+		return owners;
+	}
+
+	/**
+	 * Deletes the owner together with its pets and their visits, using one set-based statement per table whatever
+	 * the size of the owner's history.
+	 */
 	@Override
 	@Transactional
 	public void delete(Owner owner) throws DataAccessException {
 		Map<String, Object> owner_params = new HashMap<>();
 		owner_params.put("id", owner.getId());
-        List<Pet> pets = owner.getPets();
-        // cascade delete pets
-        for (Pet pet : pets){
-        	Map<String, Object> pet_params = new HashMap<>();
-        	pet_params.put("id", pet.getId());
-        	// cascade delete visits
-        	List<Visit> visits = pet.getVisits();
-            for (Visit visit : visits){
-            	Map<String, Object> visit_params = new HashMap<>();
-            	visit_params.put("id", visit.getId());
-            	this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", visit_params);
-            }
-            this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE id=:id", pet_params);
-        }
-        this.namedParameterJdbcTemplate.update("DELETE FROM owners WHERE id=:id", owner_params);
+		this.namedParameterJdbcTemplate.update(
+			"DELETE FROM visits WHERE pet_id IN (SELECT id FROM pets WHERE owner_id=:id)", owner_params);
+		this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE owner_id=:id", owner_params);
+		this.namedParameterJdbcTemplate.update("DELETE FROM owners WHERE id=:id", owner_params);
 	}
 
 
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.util.EntityIndex;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} implementation mapping rows of pets joined with their type and owner to {@link JdbcPet}
+ * instances having their {@link PetType} and {@link Owner} set.
+ * <p>
+ * Keeps an identity map per query so that each pet, type and owner is materialized only once, however many rows
+ * refer to it. A new instance must therefore be used for every query.
+ */
+class JdbcPetGraphRowMapper implements RowMapper<JdbcPet> {
+
+    /**
+     * Columns read by this mapper.
+     */
+    static final String COLUMNS = "pets.id as pets_id, pets.name, birth_date, type_id, owner_id, " +
+        "pets.version as pet_version, types.name as type_name, types.version as type_version, " +
+        "first_name, last_name, address, city, telephone, owners.version as owner_version";
+
+    /**
+     * Joins to append to a <code>FROM</code> clause containing the <code>pets</code> table.
+     */
+    static final String JOINS = "JOIN types ON pets.type_id = types.id JOIN owners ON pets.owner_id = owners.id";
+
+    private final JdbcPetRowMapper petRowMapper = new JdbcPetRowMapper();
+
+    private final EntityIndex<JdbcPet> pets = new EntityIndex<>(JdbcPet.class);
+
+    private final EntityIndex<PetType> petTypes = new EntityIndex<>(PetType.class);
+
+    private final EntityIndex<Owner> owners = new EntityIndex<>(Owner.class);
+
+    @Override
+    public JdbcPet mapRow(ResultSet rs, int rowNum) throws SQLException {
+        JdbcPet pet = this.pets.get(rs.getInt("pets_id"));
+        if (pet == null) {
+            pet = this.petRowMapper.mapRow(rs, rowNum);
+            pet.setType(mapPetType(rs, pet.getTypeId()));
+            mapOwner(rs, pet.getOwnerId()).addPet(pet);
+            this.pets.add(pet);
+        }
+        return pet;
+    }
+
+    private PetType mapPetType(ResultSet rs, int typeId) throws SQLException {
+        PetType petType = this.petTypes.get(typeId);
+        if (petType == null) {
+            petType = new PetType();
+            petType.setId(typeId);
+            petType.setName(rs.getString("type_name"));
+            petType.setVersion(rs.getInt("type_version"));
+            this.petTypes.add(petType);
+        }
+        return petType;
+    }
+
+    private Owner mapOwner(ResultSet rs, int ownerId) throws SQLException {
+        Owner owner = this.owners.get(ownerId);
+        if (owner == null) {
+            owner = new Owner();
+            owner.setId(ownerId);
+            owner.setFirstName(rs.getString("first_name"));
+            owner.setLastName(rs.getString("last_name"));
+            owner.setAddress(rs.getString("address"));
+            owner.setCity(rs.getString("city"));
+            owner.setTelephone(rs.getString("telephone"));
+            owner.setVersion(rs.getInt("owner_version"));
+            this.owners.add(owner);
+        }
+        return owner;
+    }
+}
@@ -20,26 +20,27 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
-import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Visit;
-import org.springframework.samples.petclinic.repository.OwnerRepository;
 import org.springframework.samples.petclinic.repository.PetRepository;
 import org.springframework.samples.petclinic.repository.VisitRepository;
-import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.samples.petclinic.util.EntityIndex;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -55,26 +56,25 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcPetRepositoryImpl implements PetRepository {
 
+    private static final JdbcPetTypeRowMapper PET_TYPE_ROW_MAPPER = new JdbcPetTypeRowMapper();
+
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     private SimpleJdbcInsert insertPet;
 
-    private OwnerRepository ownerRepository;
-
     private VisitRepository visitRepository;
 
 
     @Autowired
-    public JdbcPetRepositoryImpl(DataSource dataSource,
-    		OwnerRepository ownerRepository,
+    public JdbcPetRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
     		VisitRepository visitRepository) {
-        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
 
-        this.insertPet = new SimpleJdbcInsert(dataSource)
+        this.insertPet = new SimpleJdbcInsert(namedParameterJdbcTemplate.getJdbcTemplate())
             .withTableName("pets")
             .usingGeneratedKeyColumns("id");
+        this.insertPet.compile();
 
-        this.ownerRepository = ownerRepository;
         this.visitRepository = visitRepository;
     }
 
@@ -82,23 +82,52 @@ public class JdbcPetRepositoryImpl implements PetRepository {
     public List<PetType> findPetTypes() throws DataAccessException {
         Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM types ORDER BY name",
+            "SELECT id, name, version FROM types ORDER BY name",
             params,
-            BeanPropertyRowMapper.newInstance(PetType.class));
+            PET_TYPE_ROW_MAPPER);
+    }
+
+    @Override
+    public List<Integer> findIds(Collection<Integer> ids) throws DataAccessException {
+        return this.namedParameterJdbcTemplate.queryForList(
+            "SELECT id FROM pets WHERE id IN (:ids)",
+            Map.of("ids", ids),
+            Integer.class);
+    }
+
+    @Override
+    public List<Integer> findOwnerIds(Collection<Integer> petIds) throws DataAccessException {
+        return this.namedParameterJdbcTemplate.queryForList(
+            "SELECT DISTINCT owner_id FROM pets WHERE id IN (:ids)",
+            Map.of("ids", petIds),
+            Integer.class);
     }
 
+    /**
+     * Loads the {@link Pet} with the supplied <code>id</code> together with its type, owner and visits. The owner is
+     * loaded without its other pets.
+     */
     @Override
     public Pet findById(int id) throws DataAccessException {
-        Integer ownerId;
+        JdbcPet pet;
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
         try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
-            ownerId = this.namedParameterJdbcTemplate.queryForObject("SELECT owner_id FROM pets WHERE id=:id", params, Integer.class);
+            pet = this.namedParameterJdbcTemplate.queryForObject(
+                "SELECT " + JdbcPetGraphRowMapper.COLUMNS + " FROM pets " + JdbcPetGraphRowMapper.JOINS + " WHERE pets.id=:id",
+                params,
+                new JdbcPetGraphRowMapper());
         } catch (EmptyResultDataAccessException ex) {
             throw new ObjectRetrievalFailureException(Pet.class, id);
         }
-        Owner owner = this.ownerRepository.findById(ownerId);
-        return EntityUtils.getById(owner.getPets(), Pet.class, id);
+        List<Visit> visits = this.namedParameterJdbcTemplate.query(
+            "SELECT id as visit_id, visit_date, description, version as visit_version FROM visits WHERE pet_id=:id",
+            params,
+            new JdbcVisitRowMapper());
+        for (Visit visit : visits) {
+            pet.addVisit(visit);
+        }
+        return pet;
     }
 
     @Override
@@ -108,13 +137,24 @@ public class JdbcPetRepositoryImpl implements PetRepository {
                 createPetParameterSource(pet));
             pet.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update(
+            int updated = this.namedParameterJdbcTemplate.update(
                 "UPDATE pets SET name=:name, birth_date=:birth_date, type_id=:type_id, " +
-                    "owner_id=:owner_id WHERE id=:id",
+                    "owner_id=:owner_id, version=version+1 WHERE id=:id AND version=:version",
                 createPetParameterSource(pet));
+            if (updated == 0) {
+                throw new ObjectOptimisticLockingFailureException(Pet.class, pet.getId());
+            }
+            pet.setVersion(pet.getVersion() + 1);
         }
     }
 
+    @Override
+    public void saveAll(Collection<Pet> pets) throws DataAccessException {
+        BatchInserts.saveAll(this.namedParameterJdbcTemplate,
+            "INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (:name, :birth_date, :type_id, :owner_id)",
+            pets, this::createPetParameterSource, this::save);
+    }
+
     /**
      * Creates a {@link MapSqlParameterSource} based on data values from the supplied {@link Pet} instance.
      */
@@ -124,31 +164,110 @@ public class JdbcPetRepositoryImpl implements PetRepository {
             .addValue("name", pet.getName())
             .addValue("birth_date", pet.getBirthDate())
             .addValue("type_id", pet.getType().getId())
-            .addValue("owner_id", pet.getOwner().getId());
+            .addValue("owner_id", pet.getOwner().getId())
+            .addValue("version", pet.getVersion());
     }
     
+	/**
+	 * Loads all {@link Pet Pets} with their type, owner and visits by streaming a single joined query. Types and
+	 * owners are shared between the pets referring to them.
+	 */
 	@Override
 	public Collection<Pet> findAll() throws DataAccessException {
+		return findPetGraphs("", new HashMap<>());
+	}
+
+	@Override
+	public List<Pet> findAfter(int afterId, int limit, Set<Embed> embeds) throws DataAccessException {
 		Map<String, Object> params = new HashMap<>();
-		Collection<Pet> pets = new ArrayList<Pet>();
-		Collection<JdbcPet> jdbcPets = new ArrayList<JdbcPet>();
-		jdbcPets = this.namedParameterJdbcTemplate
-				.query("SELECT pets.id as pets_id, name, birth_date, type_id, owner_id FROM pets",
-				params,
-				new JdbcPetRowMapper());
-		Collection<PetType> petTypes = this.namedParameterJdbcTemplate.query("SELECT id, name FROM types ORDER BY name",
-				new HashMap<String,
-				Object>(), BeanPropertyRowMapper.newInstance(PetType.class));
-		Collection<Owner> owners = this.namedParameterJdbcTemplate.query(
-				"SELECT id, first_name, last_name, address, city, telephone FROM owners ORDER BY last_name",
-				new HashMap<String, Object>(),
-				BeanPropertyRowMapper.newInstance(Owner.class));
-		for (JdbcPet jdbcPet : jdbcPets) {
-			jdbcPet.setType(EntityUtils.getById(petTypes, PetType.class, jdbcPet.getTypeId()));
-			jdbcPet.setOwner(EntityUtils.getById(owners, Owner.class, jdbcPet.getOwnerId()));
-			// TODO add visits
-			pets.add(jdbcPet);
+		params.put("afterId", afterId);
+		params.put("limit", limit);
+		if (!embeds.contains(Embed.VISITS)) {
+			// one row per pet, so the joined query can be limited directly
+			return new ArrayList<>(this.namedParameterJdbcTemplate.query(
+				"SELECT " + JdbcPetGraphRowMapper.COLUMNS + " FROM pets " + JdbcPetGraphRowMapper.JOINS +
+					" WHERE pets.id > :afterId ORDER BY pets.id LIMIT :limit",
+				params, new JdbcPetGraphRowMapper()));
+		}
+		List<Integer> ids = this.namedParameterJdbcTemplate.queryForList(
+			"SELECT id FROM pets WHERE id > :afterId ORDER BY id LIMIT :limit", params, Integer.class);
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
 		}
+		// the page is a contiguous id range, so the joined query needs no LIMIT that would cut through a pet's visits
+		params.put("lastId", ids.get(ids.size() - 1));
+		return findPetGraphs(" WHERE pets.id > :afterId AND pets.id <= :lastId", params);
+	}
+
+	@Override
+	public void streamAll(Consumer<? super Pet> action) throws DataAccessException {
+		EntityIndex<PetType> petTypes = new EntityIndex<>(PetType.class);
+		JdbcPetRowMapper petRowMapper = new JdbcPetRowMapper();
+		JdbcVisitRowMapper visitRowMapper = new JdbcVisitRowMapper();
+		// rows are ordered by pet, so a pet is complete once the first row of the next one arrives
+		JdbcPet[] current = new JdbcPet[1];
+		// forward-only results do not have to support getRow, so rows are counted here
+		int[] rows = new int[1];
+		StreamingRowCallbacks.query(this.namedParameterJdbcTemplate.getJdbcTemplate(),
+			"SELECT pets.id as pets_id, pets.name, birth_date, type_id, owner_id, pets.version as pet_version, " +
+				"types.name as type_name, types.version as type_version, visits.id as visit_id, visit_date, description, " +
+				"visits.version as visit_version FROM pets JOIN types ON pets.type_id = types.id " +
+				"LEFT OUTER JOIN visits ON pets.id = visits.pet_id ORDER BY pets.id",
+			rs -> {
+				int rowNum = rows[0]++;
+				JdbcPet pet = current[0];
+				if (pet == null || pet.getId() != rs.getInt("pets_id")) {
+					if (pet != null) {
+						action.accept(pet);
+					}
+					pet = petRowMapper.mapRow(rs, rowNum);
+					PetType petType = petTypes.get(pet.getTypeId());
+					if (petType == null) {
+						petType = new PetType();
+						petType.setId(pet.getTypeId());
+						petType.setName(rs.getString("type_name"));
+						petType.setVersion(rs.getInt("type_version"));
+						petTypes.add(petType);
+					}
+					pet.setType(petType);
+					// only the owner id is read, the owner is not shared so that emitted pets can be collected
+					Owner owner = new Owner();
+					owner.setId(pet.getOwnerId());
+					pet.setOwner(owner);
+					current[0] = pet;
+				}
+				if (rs.getObject("visit_id") != null) {
+					pet.addVisit(visitRowMapper.mapRow(rs, rowNum));
+				}
+			});
+		if (current[0] != null) {
+			action.accept(current[0]);
+		}
+	}
+
+	/**
+	 * Reads pets with their owner, type and visits in one outer-joined query ordered by pet id.
+	 */
+	private List<Pet> findPetGraphs(String where, Map<String, Object> params) {
+		List<Pet> pets = new ArrayList<>();
+		JdbcPetGraphRowMapper petGraphRowMapper = new JdbcPetGraphRowMapper();
+		JdbcVisitRowMapper visitRowMapper = new JdbcVisitRowMapper();
+		int[] rows = new int[1];
+		this.namedParameterJdbcTemplate.query(
+			"SELECT " + JdbcPetGraphRowMapper.COLUMNS + ", visits.id as visit_id, visit_date, description, visits.version as visit_version FROM pets " +
+				JdbcPetGraphRowMapper.JOINS + " LEFT OUTER JOIN visits ON pets.id = visits.pet_id" + where + " ORDER BY pets.id",
+			params,
+			rs -> {
+				int rowNum = rows[0]++;
+				JdbcPet pet = petGraphRowMapper.mapRow(rs, rowNum);
+				// rows are ordered by pet, so a pet differing from the last one is seen for the first time
+				if (pets.isEmpty() || pets.get(pets.size() - 1) != pet) {
+					pets.add(pet);
+				}
+				if (rs.getObject("visit_id") != null) {
+					pet.addVisit(visitRowMapper.mapRow(rs, rowNum));
+				}
+			});
 		return pets;
 	}
 
@@ -156,13 +275,8 @@ public class JdbcPetRepositoryImpl implements PetRepository {
 	public void delete(Pet pet) throws DataAccessException {
 		Map<String, Object> pet_params = new HashMap<>();
 		pet_params.put("id", pet.getId());
-		List<Visit> visits = pet.getVisits();
 		// cascade delete visits
-		for (Visit visit : visits) {
-			Map<String, Object> visit_params = new HashMap<>();
-			visit_params.put("id", visit.getId());
-			this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", visit_params);
-		}
+		this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE pet_id=:id", pet_params);
 		this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE id=:id", pet_params);
 	}
 
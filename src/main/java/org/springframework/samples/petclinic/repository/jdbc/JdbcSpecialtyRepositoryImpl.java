@@ -18,16 +18,15 @@ package org.springframework.samples.petclinic.repository.jdbc;
 
 import java.util.*;
 
-import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Specialty;
 import org.springframework.samples.petclinic.repository.SpecialtyRepository;
@@ -42,16 +41,19 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
 
+	private static final JdbcSpecialtyRowMapper SPECIALTY_ROW_MAPPER = new JdbcSpecialtyRowMapper();
+
 	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
 	private SimpleJdbcInsert insertSpecialty;
 
 	@Autowired
-	public JdbcSpecialtyRepositoryImpl(DataSource dataSource) {
-		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
-		this.insertSpecialty = new SimpleJdbcInsert(dataSource)
+	public JdbcSpecialtyRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+		this.insertSpecialty = new SimpleJdbcInsert(namedParameterJdbcTemplate.getJdbcTemplate())
 	            .withTableName("specialties")
 	            .usingGeneratedKeyColumns("id");
+		this.insertSpecialty.compile();
 	}
 
 	@Override
@@ -61,9 +63,9 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
             Map<String, Object> params = new HashMap<>();
             params.put("id", id);
             specialty = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM specialties WHERE id= :id",
+                "SELECT id, name, version FROM specialties WHERE id= :id",
                 params,
-                BeanPropertyRowMapper.newInstance(Specialty.class));
+                SPECIALTY_ROW_MAPPER);
         } catch (EmptyResultDataAccessException ex) {
             throw new ObjectRetrievalFailureException(Specialty.class, id);
         }
@@ -74,13 +76,13 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
     public List<Specialty> findSpecialtiesByNameIn(Set<String> names) {
         List<Specialty> specialties;
         try{
-            String sql = "SELECT id, name FROM specialties WHERE specialties.name IN (:names)";
+            String sql = "SELECT id, name, version FROM specialties WHERE specialties.name IN (:names)";
             Map<String, Object> params = new HashMap<>();
             params.put("names", names);
             specialties = this.namedParameterJdbcTemplate.query(
                 sql,
                 params,
-                new BeanPropertyRowMapper<>(Specialty.class));
+                SPECIALTY_ROW_MAPPER);
         } catch (EmptyResultDataAccessException ex){
             throw new ObjectRetrievalFailureException(Specialty.class, names);
         }
@@ -92,9 +94,9 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
 	public Collection<Specialty> findAll() throws DataAccessException {
 		Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM specialties",
+            "SELECT id, name, version FROM specialties",
             params,
-            BeanPropertyRowMapper.newInstance(Specialty.class));
+            SPECIALTY_ROW_MAPPER);
 	}
 
 	@Override
@@ -104,8 +106,12 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
             Number newKey = this.insertSpecialty.executeAndReturnKey(parameterSource);
             specialty.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update("UPDATE specialties SET name=:name WHERE id=:id",
-                parameterSource);
+            int updated = this.namedParameterJdbcTemplate.update(
+                "UPDATE specialties SET name=:name, version=version+1 WHERE id=:id AND version=:version", parameterSource);
+            if (updated == 0) {
+                throw new ObjectOptimisticLockingFailureException(Specialty.class, specialty.getId());
+            }
+            specialty.setVersion(specialty.getVersion() + 1);
         }
 
 	}
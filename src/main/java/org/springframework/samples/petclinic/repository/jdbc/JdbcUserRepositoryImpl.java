@@ -1,16 +1,20 @@
 package org.springframework.samples.petclinic.repository.jdbc;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.samples.petclinic.model.Role;
@@ -22,13 +26,16 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcUserRepositoryImpl implements UserRepository {
 
+    private static final JdbcUserRowMapper USER_ROW_MAPPER = new JdbcUserRowMapper();
+
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private SimpleJdbcInsert insertUser;
 
     @Autowired
-    public JdbcUserRepositoryImpl(DataSource dataSource) {
-        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
-        this.insertUser = new SimpleJdbcInsert(dataSource).withTableName("users");
+    public JdbcUserRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.insertUser = new SimpleJdbcInsert(namedParameterJdbcTemplate.getJdbcTemplate()).withTableName("users");
+        this.insertUser.compile();
     }
 
     @Override
@@ -50,19 +57,40 @@ public class JdbcUserRepositoryImpl implements UserRepository {
 
         Map<String, Object> params = new HashMap<>();
         params.put("username", username);
-        return this.namedParameterJdbcTemplate.queryForObject("SELECT * FROM users WHERE username=:username",
-            params, BeanPropertyRowMapper.newInstance(User.class));
+        return this.namedParameterJdbcTemplate.queryForObject("SELECT username, password, enabled FROM users WHERE username=:username",
+            params, USER_ROW_MAPPER);
     }
 
+    /**
+     * Brings the roles rows of the given user in line with its roles, inserting the missing rows in one JDBC batch
+     * and deleting the removed ones with a single statement.
+     */
     private void updateUserRoles(User user) {
         Map<String, Object> params = new HashMap<>();
         params.put("username", user.getUsername());
-        this.namedParameterJdbcTemplate.update("DELETE FROM roles WHERE username=:username", params);
+        Set<String> roleNames = new LinkedHashSet<>();
         for (Role role : user.getRoles()) {
-            params.put("role", role.getName());
             if (role.getName() != null) {
-                this.namedParameterJdbcTemplate.update("INSERT INTO roles(username, role) VALUES (:username, :role)", params);
+                roleNames.add(role.getName());
             }
         }
+        Set<String> storedRoleNames = new HashSet<>(this.namedParameterJdbcTemplate.queryForList(
+            "SELECT role FROM roles WHERE username=:username", params, String.class));
+        List<String> removedRoleNames = new ArrayList<>(storedRoleNames);
+        removedRoleNames.removeAll(roleNames);
+        if (!removedRoleNames.isEmpty()) {
+            params.put("roles", removedRoleNames);
+            this.namedParameterJdbcTemplate.update("DELETE FROM roles WHERE username=:username AND role IN (:roles)", params);
+        }
+        List<MapSqlParameterSource> inserts = new ArrayList<>();
+        for (String roleName : roleNames) {
+            if (!storedRoleNames.contains(roleName)) {
+                inserts.add(new MapSqlParameterSource().addValue("username", user.getUsername()).addValue("role", roleName));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            this.namedParameterJdbcTemplate.batchUpdate("INSERT INTO roles(username, role) VALUES (:username, :role)",
+                inserts.toArray(new MapSqlParameterSource[0]));
+        }
     }
 }
@@ -15,29 +15,32 @@
  */
 package org.springframework.samples.petclinic.repository.jdbc;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Specialty;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.repository.VetRepository;
+import org.springframework.samples.petclinic.util.EntityIndex;
 import org.springframework.samples.petclinic.util.EntityUtils;
 import org.springframework.stereotype.Repository;
 
@@ -57,15 +60,24 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcVetRepositoryImpl implements VetRepository {
 
+    private static final JdbcVetRowMapper VET_ROW_MAPPER = new JdbcVetRowMapper();
+
+    /**
+     * Selects vet/specialty pairs together with the specialty name and version.
+     */
+    private static final String VET_SPECIALTIES_SELECT =
+        "SELECT vet_id, specialty_id, name, version FROM vet_specialties JOIN specialties ON vet_specialties.specialty_id = specialties.id";
+
     private JdbcTemplate jdbcTemplate;
 	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 	private SimpleJdbcInsert insertVet;
 
     @Autowired
-    public JdbcVetRepositoryImpl(DataSource dataSource, JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
-		this.insertVet = new SimpleJdbcInsert(dataSource).withTableName("vets").usingGeneratedKeyColumns("id");
-		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    public JdbcVetRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = namedParameterJdbcTemplate.getJdbcTemplate();
+		this.insertVet = new SimpleJdbcInsert(this.jdbcTemplate).withTableName("vets").usingGeneratedKeyColumns("id");
+		this.insertVet.compile();
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
     }
 
     /**
@@ -76,33 +88,30 @@ public class JdbcVetRepositoryImpl implements VetRepository {
         List<Vet> vets = new ArrayList<>();
         // Retrieve the list of all vets.
         vets.addAll(this.jdbcTemplate.query(
-            "SELECT id, first_name, last_name FROM vets ORDER BY last_name,first_name",
-            BeanPropertyRowMapper.newInstance(Vet.class)));
-
-        // Retrieve the list of all possible specialties.
-        final List<Specialty> specialties = this.jdbcTemplate.query(
-            "SELECT id, name FROM specialties",
-            BeanPropertyRowMapper.newInstance(Specialty.class));
+            "SELECT id, first_name, last_name, version FROM vets ORDER BY last_name,first_name",
+            VET_ROW_MAPPER));
 
         // Build each vet's list of specialties.
-        for (Vet vet : vets) {
-            final List<Integer> vetSpecialtiesIds = this.jdbcTemplate.query(
-                "SELECT specialty_id FROM vet_specialties WHERE vet_id=?",
-                new BeanPropertyRowMapper<Integer>() {
-                    @Override
-                    public Integer mapRow(ResultSet rs, int row) throws SQLException {
-                        return rs.getInt(1);
-                    }
-                },
-                vet.getId());
-            for (int specialtyId : vetSpecialtiesIds) {
-                Specialty specialty = EntityUtils.getById(specialties, Specialty.class, specialtyId);
-                vet.addSpecialty(specialty);
-            }
+        loadSpecialties(vets, VET_SPECIALTIES_SELECT, new HashMap<>());
+        return vets;
+    }
+
+    @Override
+    public List<Vet> findAfter(int afterId, int limit) throws DataAccessException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("afterId", afterId);
+        params.put("limit", limit);
+        List<Vet> vets = this.namedParameterJdbcTemplate.query(
+            "SELECT id, first_name, last_name, version FROM vets WHERE id > :afterId ORDER BY id LIMIT :limit",
+            params,
+            VET_ROW_MAPPER);
+        if (!vets.isEmpty()) {
+            params.put("lastId", vets.get(vets.size() - 1).getId());
+            loadSpecialties(vets, VET_SPECIALTIES_SELECT + " WHERE vet_id > :afterId AND vet_id <= :lastId", params);
         }
         return vets;
     }
-    
+
 	@Override
 	public Vet findById(int id) throws DataAccessException {
 		Vet vet;
@@ -110,26 +119,11 @@ public class JdbcVetRepositoryImpl implements VetRepository {
 			Map<String, Object> vet_params = new HashMap<>();
 			vet_params.put("id", id);
 			vet = this.namedParameterJdbcTemplate.queryForObject(
-					"SELECT id, first_name, last_name FROM vets WHERE id= :id",
+					"SELECT id, first_name, last_name, version FROM vets WHERE id= :id",
 					vet_params,
-					BeanPropertyRowMapper.newInstance(Vet.class));
+					VET_ROW_MAPPER);
 
-			final List<Specialty> specialties = this.namedParameterJdbcTemplate.query(
-					"SELECT id, name FROM specialties", vet_params, BeanPropertyRowMapper.newInstance(Specialty.class));
-
-			final List<Integer> vetSpecialtiesIds = this.namedParameterJdbcTemplate.query(
-					"SELECT specialty_id FROM vet_specialties WHERE vet_id=:id",
-					vet_params,
-					new BeanPropertyRowMapper<Integer>() {
-						@Override
-						public Integer mapRow(ResultSet rs, int row) throws SQLException {
-							return rs.getInt(1);
-						}
-					});
-			for (int specialtyId : vetSpecialtiesIds) {
-				Specialty specialty = EntityUtils.getById(specialties, Specialty.class, specialtyId);
-				vet.addSpecialty(specialty);
-			}
+			loadSpecialties(Collections.singletonList(vet), VET_SPECIALTIES_SELECT + " WHERE vet_id=:id", vet_params);
 
 		} catch (EmptyResultDataAccessException ex) {
 			throw new ObjectRetrievalFailureException(Vet.class, id);
@@ -137,17 +131,47 @@ public class JdbcVetRepositoryImpl implements VetRepository {
 		return vet;
 	}
 
+    /**
+     * Adds the specialties read by the given vet/specialty join query to the supplied vets. Every specialty is
+     * materialized once and shared by all vets having it.
+     */
+    private void loadSpecialties(Collection<Vet> vets, String sql, Map<String, Object> params) {
+        EntityIndex<Vet> vetsById = EntityUtils.indexById(vets, Vet.class);
+        EntityIndex<Specialty> specialtiesById = new EntityIndex<>(Specialty.class);
+        this.namedParameterJdbcTemplate.query(sql, params, rs -> {
+            Vet vet = vetsById.get(rs.getInt("vet_id"));
+            if (vet == null) {
+                return;
+            }
+            int specialtyId = rs.getInt("specialty_id");
+            Specialty specialty = specialtiesById.get(specialtyId);
+            if (specialty == null) {
+                specialty = new Specialty();
+                specialty.setId(specialtyId);
+                specialty.setName(rs.getString("name"));
+                specialty.setVersion(rs.getInt("version"));
+                specialtiesById.add(specialty);
+            }
+            vet.addSpecialty(specialty);
+        });
+    }
+
 	@Override
 	public void save(Vet vet) throws DataAccessException {
 		BeanPropertySqlParameterSource parameterSource = new BeanPropertySqlParameterSource(vet);
 		if (vet.isNew()) {
 			Number newKey = this.insertVet.executeAndReturnKey(parameterSource);
 			vet.setId(newKey.intValue());
-			updateVetSpecialties(vet);
+			updateVetSpecialties(vet, true);
 		} else {
-			this.namedParameterJdbcTemplate
-					.update("UPDATE vets SET first_name=:firstName, last_name=:lastName WHERE id=:id", parameterSource);
-			updateVetSpecialties(vet);
+			int updated = this.namedParameterJdbcTemplate.update(
+					"UPDATE vets SET first_name=:firstName, last_name=:lastName, version=version+1 WHERE id=:id AND version=:version",
+					parameterSource);
+			if (updated == 0) {
+				throw new ObjectOptimisticLockingFailureException(Vet.class, vet.getId());
+			}
+			vet.setVersion(vet.getVersion() + 1);
+			updateVetSpecialties(vet, false);
 		}
 	}
 
@@ -159,16 +183,41 @@ public class JdbcVetRepositoryImpl implements VetRepository {
 		this.namedParameterJdbcTemplate.update("DELETE FROM vets WHERE id=:id", params);
 	}
 	
-	private void updateVetSpecialties(Vet vet) throws DataAccessException {
+	/**
+	 * Brings the vet_specialties rows of the given vet in line with its specialties, inserting the missing rows in
+	 * one JDBC batch and deleting the removed ones with a single statement.
+	 */
+	private void updateVetSpecialties(Vet vet, boolean isNew) throws DataAccessException {
 		Map<String, Object> params = new HashMap<>();
 		params.put("id", vet.getId());
-		this.namedParameterJdbcTemplate.update("DELETE FROM vet_specialties WHERE vet_id=:id", params);
+		Set<Integer> specialtyIds = new LinkedHashSet<>();
 		for (Specialty spec : vet.getSpecialties()) {
-			params.put("spec_id", spec.getId());
-			if(!(spec.getId() == null)) {
-				this.namedParameterJdbcTemplate.update("INSERT INTO vet_specialties VALUES (:id, :spec_id)", params);
+			if (spec.getId() != null) {
+				specialtyIds.add(spec.getId());
+			}
+		}
+		Set<Integer> storedIds = new HashSet<>();
+		if (!isNew) {
+			storedIds.addAll(this.namedParameterJdbcTemplate.queryForList(
+				"SELECT specialty_id FROM vet_specialties WHERE vet_id=:id", params, Integer.class));
+		}
+		List<Integer> removedIds = new ArrayList<>(storedIds);
+		removedIds.removeAll(specialtyIds);
+		if (!removedIds.isEmpty()) {
+			params.put("spec_ids", removedIds);
+			this.namedParameterJdbcTemplate.update(
+				"DELETE FROM vet_specialties WHERE vet_id=:id AND specialty_id IN (:spec_ids)", params);
+		}
+		List<MapSqlParameterSource> inserts = new ArrayList<>();
+		for (Integer specialtyId : specialtyIds) {
+			if (!storedIds.contains(specialtyId)) {
+				inserts.add(new MapSqlParameterSource().addValue("id", vet.getId()).addValue("spec_id", specialtyId));
 			}
 		}
+		if (!inserts.isEmpty()) {
+			this.namedParameterJdbcTemplate.batchUpdate("INSERT INTO vet_specialties VALUES (:id, :spec_id)",
+				inserts.toArray(new MapSqlParameterSource[0]));
+		}
 	}
 
 }
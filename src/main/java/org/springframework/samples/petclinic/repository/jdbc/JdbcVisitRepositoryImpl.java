@@ -19,22 +19,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.orm.ObjectRetrievalFailureException;
-import org.springframework.samples.petclinic.model.Owner;
-import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.repository.VisitRepository;
 import org.springframework.stereotype.Repository;
 
-import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * A simple JDBC-based implementation of the {@link VisitRepository} interface.
@@ -52,16 +51,25 @@ import java.util.*;
 @Profile("jdbc")
 public class JdbcVisitRepositoryImpl implements VisitRepository {
 
+    /**
+     * Selects visits together with the columns of their pet, pet type and owner, as read by
+     * {@link JdbcVisitRowMapperExt}.
+     */
+    private static final String VISIT_GRAPH_SELECT =
+        "SELECT visits.id as visit_id, visit_date, description, visits.version as visit_version, " + JdbcPetGraphRowMapper.COLUMNS +
+            " FROM visits JOIN pets ON visits.pet_id = pets.id " + JdbcPetGraphRowMapper.JOINS;
+
     protected SimpleJdbcInsert insertVisit;
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     @Autowired
-    public JdbcVisitRepositoryImpl(DataSource dataSource) {
-        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    public JdbcVisitRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
 
-        this.insertVisit = new SimpleJdbcInsert(dataSource)
+        this.insertVisit = new SimpleJdbcInsert(namedParameterJdbcTemplate.getJdbcTemplate())
             .withTableName("visits")
             .usingGeneratedKeyColumns("id");
+        this.insertVisit.compile();
     }
 
 
@@ -73,7 +81,8 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
             .addValue("id", visit.getId())
             .addValue("visit_date", visit.getDate())
             .addValue("description", visit.getDescription())
-            .addValue("pet_id", visit.getPet().getId());
+            .addValue("pet_id", visit.getPet().getId())
+            .addValue("version", visit.getVersion());
     }
 
     @Override
@@ -81,12 +90,12 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
         Map<String, Object> params = new HashMap<>();
         params.put("id", petId);
         JdbcPet pet = this.namedParameterJdbcTemplate.queryForObject(
-            "SELECT id as pets_id, name, birth_date, type_id, owner_id FROM pets WHERE id=:id",
+            "SELECT id as pets_id, name, birth_date, type_id, owner_id, version as pet_version FROM pets WHERE id=:id",
             params,
             new JdbcPetRowMapper());
 
         List<Visit> visits = this.namedParameterJdbcTemplate.query(
-            "SELECT id as visit_id, visit_date, description FROM visits WHERE pet_id=:id",
+            "SELECT id as visit_id, visit_date, description, version as visit_version FROM visits WHERE pet_id=:id",
             params, new JdbcVisitRowMapper());
 
         for (Visit visit : visits) {
@@ -103,7 +112,7 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
             Map<String, Object> params = new HashMap<>();
             params.put("id", id);
             visit = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id as visit_id, visits.pet_id as pets_id, visit_date, description FROM visits WHERE id= :id",
+                VISIT_GRAPH_SELECT + " WHERE visits.id= :id",
                 params,
                 new JdbcVisitRowMapperExt());
         } catch (EmptyResultDataAccessException ex) {
@@ -116,7 +125,33 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
     public Collection<Visit> findAll() throws DataAccessException {
         Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id as visit_id, pets.id as pets_id, visit_date, description FROM visits LEFT JOIN pets ON visits.pet_id = pets.id",
+            VISIT_GRAPH_SELECT,
+            params, new JdbcVisitRowMapperExt());
+    }
+
+    @Override
+    public void streamAll(Consumer<? super Visit> action) throws DataAccessException {
+        JdbcVisitRowMapper visitRowMapper = new JdbcVisitRowMapper();
+        // forward-only results do not have to support getRow, so rows are counted here
+        int[] rows = new int[1];
+        StreamingRowCallbacks.query(this.namedParameterJdbcTemplate.getJdbcTemplate(),
+            "SELECT id as visit_id, visit_date, description, version as visit_version, pet_id FROM visits ORDER BY id",
+            rs -> {
+                Visit visit = visitRowMapper.mapRow(rs, rows[0]++);
+                Pet pet = new Pet();
+                pet.setId(rs.getInt("pet_id"));
+                visit.setPet(pet);
+                action.accept(visit);
+            });
+    }
+
+    @Override
+    public List<Visit> findAfter(int afterId, int limit) throws DataAccessException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("afterId", afterId);
+        params.put("limit", limit);
+        return this.namedParameterJdbcTemplate.query(
+            VISIT_GRAPH_SELECT + " WHERE visits.id > :afterId ORDER BY visits.id LIMIT :limit",
             params, new JdbcVisitRowMapperExt());
     }
 
@@ -126,12 +161,24 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
             Number newKey = this.insertVisit.executeAndReturnKey(createVisitParameterSource(visit));
             visit.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update(
-                "UPDATE visits SET visit_date=:visit_date, description=:description, pet_id=:pet_id WHERE id=:id ",
+            int updated = this.namedParameterJdbcTemplate.update(
+                "UPDATE visits SET visit_date=:visit_date, description=:description, pet_id=:pet_id, " +
+                    "version=version+1 WHERE id=:id AND version=:version",
                 createVisitParameterSource(visit));
+            if (updated == 0) {
+                throw new ObjectOptimisticLockingFailureException(Visit.class, visit.getId());
+            }
+            visit.setVersion(visit.getVersion() + 1);
         }
     }
 
+    @Override
+    public void saveAll(Collection<Visit> visits) throws DataAccessException {
+        BatchInserts.saveAll(this.namedParameterJdbcTemplate,
+            "INSERT INTO visits (visit_date, description, pet_id) VALUES (:visit_date, :description, :pet_id)",
+            visits, this::createVisitParameterSource, this::save);
+    }
+
     @Override
     public void delete(Visit visit) throws DataAccessException {
         Map<String, Object> params = new HashMap<>();
@@ -139,37 +186,22 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
         this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", params);
     }
 
-    protected class JdbcVisitRowMapperExt implements RowMapper<Visit> {
+    /**
+     * {@link RowMapper} for rows of visits joined with their pet, pet type and owner columns.
+     * <p>
+     * Delegates to a {@link JdbcPetGraphRowMapper}, so each pet, type and owner is materialized only once and shared
+     * by all of its visits. A new instance must therefore be used for every query.
+     */
+    protected static class JdbcVisitRowMapperExt implements RowMapper<Visit> {
+
+        private final JdbcVisitRowMapper visitRowMapper = new JdbcVisitRowMapper();
+
+        private final JdbcPetGraphRowMapper petGraphRowMapper = new JdbcPetGraphRowMapper();
 
         @Override
         public Visit mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Visit visit = new Visit();
-            JdbcPet pet = new JdbcPet();
-            PetType petType = new PetType();
-            Owner owner = new Owner();
-            visit.setId(rs.getInt("visit_id"));
-            Date visitDate = rs.getDate("visit_date");
-            visit.setDate(new java.sql.Date(visitDate.getTime()).toLocalDate());
-            visit.setDescription(rs.getString("description"));
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", rs.getInt("pets_id"));
-            pet = JdbcVisitRepositoryImpl.this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id FROM pets WHERE pets.id=:id",
-                params,
-                new JdbcPetRowMapper());
-            params.put("type_id", pet.getTypeId());
-            petType = JdbcVisitRepositoryImpl.this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM types WHERE id= :type_id",
-                params,
-                BeanPropertyRowMapper.newInstance(PetType.class));
-            pet.setType(petType);
-            params.put("owner_id", pet.getOwnerId());
-            owner = JdbcVisitRepositoryImpl.this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE id= :owner_id",
-                params,
-                BeanPropertyRowMapper.newInstance(Owner.class));
-            pet.setOwner(owner);
-            visit.setPet(pet);
+            Visit visit = this.visitRowMapper.mapRow(rs, rowNum);
+            visit.setPet(this.petGraphRowMapper.mapRow(rs, rowNum));
             return visit;
         }
     }
@@ -36,6 +36,7 @@ class JdbcVisitRowMapper implements RowMapper<Visit> {
         visit.setId(rs.getInt("visit_id"));
         visit.setDate(rs.getObject("visit_date", LocalDate.class));
         visit.setDescription(rs.getString("description"));
+        visit.setVersion(rs.getInt("visit_version"));
         return visit;
     }
 }
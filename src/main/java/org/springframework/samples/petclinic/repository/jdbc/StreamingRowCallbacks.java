@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Runs parameterless queries whose rows are handed to a {@link RowCallbackHandler} as the forward-only
+ * {@link ResultSet} advances, fetching {@link #FETCH_SIZE} rows per round trip. Drivers such as PostgreSQL only use a
+ * cursor instead of buffering the whole result when the query runs inside a transaction. MySQL Connector/J ignores the
+ * fetch size and reads the whole result unless the URL sets <code>useCursorFetch=true</code>, as the
+ * <code>mysql</code> profile does.
+ */
+final class StreamingRowCallbacks {
+
+    static final int FETCH_SIZE = 100;
+
+    private StreamingRowCallbacks() {
+    }
+
+    static void query(JdbcTemplate jdbcTemplate, String sql, RowCallbackHandler rowCallbackHandler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement =
+                connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rowCallbackHandler);
+    }
+
+}
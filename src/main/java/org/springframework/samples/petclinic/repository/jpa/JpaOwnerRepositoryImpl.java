@@ -15,17 +15,24 @@
  */
 package org.springframework.samples.petclinic.repository.jpa;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.orm.hibernate5.support.OpenSessionInViewFilter;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.repository.OwnerRepository;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.samples.petclinic.util.OwnerSearch;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -41,35 +48,39 @@ import org.springframework.stereotype.Repository;
 @Profile("jpa")
 public class JpaOwnerRepositoryImpl implements OwnerRepository {
 
+    static final String LOAD_GRAPH = "jakarta.persistence.loadgraph";
+
     @PersistenceContext
     private EntityManager em;
 
 
     /**
-     * Important: in the current version of this method, we load Owners with all their Pets and Visits while
-     * we do not need Visits at all and we only need one property from the Pet objects (the 'name' property).
-     * There are some ways to improve it such as:
-     * - creating a Ligtweight class (example here: https://community.jboss.org/wiki/LightweightClass)
-     * - Turning on lazy-loading and using {@link OpenSessionInViewFilter}
+     * Owners are returned with their pets, pet types and visits fetched through the {@link Owner#FULL_GRAPH}
+     * fetch plan, since that is what the REST layer serializes. Associations are lazy otherwise.
      */
     @SuppressWarnings("unchecked")
     public Collection<Owner> findByLastName(String lastName) {
-        // using 'join fetch' because a single query should load both owners and pets
-        // using 'left join fetch' because it might happen that an owner does not have pets yet
-        Query query = this.em.createQuery("SELECT DISTINCT owner FROM Owner owner left join fetch owner.pets WHERE owner.lastName LIKE :lastName");
-        query.setParameter("lastName", lastName + "%");
+        Query query = this.em.createQuery("SELECT owner FROM Owner owner WHERE owner.lastNameLower LIKE :lastName");
+        query.setParameter("lastName", Owner.normalizeLastName(lastName) + "%");
+        query.setHint(LOAD_GRAPH, this.em.getEntityGraph(Owner.FULL_GRAPH));
         return query.getResultList();
     }
 
     @Override
     public Owner findById(int id) {
-        // using 'join fetch' because a single query should load both owners and pets
-        // using 'left join fetch' because it might happen that an owner does not have pets yet
-        Query query = this.em.createQuery("SELECT owner FROM Owner owner left join fetch owner.pets WHERE owner.id =:id");
+        Query query = this.em.createQuery("SELECT owner FROM Owner owner WHERE owner.id =:id");
         query.setParameter("id", id);
+        query.setHint(LOAD_GRAPH, this.em.getEntityGraph(Owner.FULL_GRAPH));
         return (Owner) query.getSingleResult();
     }
 
+    @Override
+    public List<Integer> findIds(Collection<Integer> ids) {
+        return this.em.createQuery("SELECT owner.id FROM Owner owner WHERE owner.id IN :ids", Integer.class)
+            .setParameter("ids", ids)
+            .getResultList();
+    }
+
 
     @Override
     public void save(Owner owner) {
@@ -81,13 +92,111 @@ public class JpaOwnerRepositoryImpl implements OwnerRepository {
 
     }
 
+    /**
+     * Persists or merges the owners one by one; with <code>hibernate.jdbc.batch_size</code> set, Hibernate groups the
+     * resulting statements into JDBC batches when the persistence context is flushed.
+     */
+    @Override
+    public void saveAll(Collection<Owner> owners) {
+        for (Owner owner : owners) {
+            save(owner);
+        }
+    }
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<Owner> findAll() throws DataAccessException {
 		Query query = this.em.createQuery("SELECT owner FROM Owner owner");
+		query.setHint(LOAD_GRAPH, this.em.getEntityGraph(Owner.FULL_GRAPH));
         return query.getResultList();
 	}
 
+	@Override
+	public List<Owner> findAfter(int afterId, int limit, Set<Embed> embeds) throws DataAccessException {
+		return findPage("owner.id > :afterId", Map.of("afterId", afterId), "owner.id", limit, embeds);
+	}
+
+	@Override
+	public List<Owner> findByLastNameAfter(String lastName, int afterId, int limit, Set<Embed> embeds) throws DataAccessException {
+		return findPage("owner.lastNameLower LIKE :lastName AND owner.id > :afterId",
+			Map.of("lastName", Owner.normalizeLastName(lastName) + "%", "afterId", afterId), "owner.id", limit, embeds);
+	}
+
+	@Override
+	public List<Owner> search(OwnerSearch search, OwnerSearch.After after, int limit, Set<Embed> embeds) throws DataAccessException {
+		List<String> conditions = new ArrayList<>();
+		Map<String, Object> params = new HashMap<>();
+		if (search.lastName() != null) {
+			conditions.add("owner.lastNameLower LIKE :lastName");
+			params.put("lastName", Owner.normalizeLastName(search.lastName()) + "%");
+		}
+		if (search.city() != null) {
+			conditions.add("owner.city = :city");
+			params.put("city", search.city());
+		}
+		if (search.telephone() != null) {
+			conditions.add("owner.telephone = :telephone");
+			params.put("telephone", search.telephone());
+		}
+		if (search.petName() != null || search.petType() != null) {
+			StringBuilder pets = new StringBuilder("EXISTS (SELECT pet.id FROM Pet pet WHERE pet.owner = owner");
+			if (search.petName() != null) {
+				pets.append(" AND pet.name LIKE :petName");
+				params.put("petName", search.petName() + "%");
+			}
+			if (search.petType() != null) {
+				pets.append(" AND pet.type.name = :petType");
+				params.put("petType", search.petType());
+			}
+			conditions.add(pets.append(")").toString());
+		}
+		String property = switch (search.sortKey()) {
+			case ID -> null;
+			case LAST_NAME -> "owner.lastName";
+			case CITY -> "owner.city";
+		};
+		String comparison = search.descending() ? "<" : ">";
+		String direction = search.descending() ? " DESC" : "";
+		if (after != null) {
+			if (property == null) {
+				conditions.add("owner.id " + comparison + " :afterId");
+			} else {
+				conditions.add(property + " " + comparison + "= :afterValue AND (" + property + " " + comparison + " :afterValue OR owner.id " + comparison + " :afterId)");
+				params.put("afterValue", after.value());
+			}
+			params.put("afterId", after.id());
+		}
+		return findPage(conditions.isEmpty() ? "1 = 1" : String.join(" AND ", conditions), params,
+			(property == null ? "" : property + direction + ", ") + "owner.id" + direction, limit, embeds);
+	}
+
+	/**
+	 * Without pets, the page is read with the {@link Owner#SUMMARY_GRAPH} in one limited query. With pets, the page
+	 * ids are selected first and their {@link Owner#WITH_PETS_GRAPH} or {@link Owner#FULL_GRAPH} is fetched next:
+	 * limiting a query that fetches collections would make Hibernate paginate in memory.
+	 */
+	private List<Owner> findPage(String where, Map<String, Object> params, String orderBy, int limit, Set<Embed> embeds) {
+		if (!embeds.contains(Embed.PETS)) {
+			TypedQuery<Owner> query = this.em.createQuery("SELECT owner FROM Owner owner WHERE " + where + " ORDER BY " + orderBy, Owner.class)
+				.setHint(LOAD_GRAPH, this.em.getEntityGraph(Owner.SUMMARY_GRAPH))
+				.setMaxResults(limit);
+			params.forEach(query::setParameter);
+			return query.getResultList();
+		}
+		TypedQuery<Integer> idQuery = this.em.createQuery("SELECT owner.id FROM Owner owner WHERE " + where + " ORDER BY " + orderBy, Integer.class)
+			.setMaxResults(limit);
+		params.forEach(idQuery::setParameter);
+		List<Integer> ids = idQuery.getResultList();
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		String graph = embeds.contains(Embed.VISITS) ? Owner.FULL_GRAPH : Owner.WITH_PETS_GRAPH;
+		return this.em.createQuery("SELECT owner FROM Owner owner WHERE owner.id IN :ids ORDER BY " + orderBy, Owner.class)
+			.setParameter("ids", ids)
+			.setHint(LOAD_GRAPH, this.em.getEntityGraph(graph))
+			.getResultList();
+	}
+
 	@Override
 	public void delete(Owner owner) throws DataAccessException {
 		this.em.remove(this.em.contains(owner) ? owner : this.em.merge(owner));
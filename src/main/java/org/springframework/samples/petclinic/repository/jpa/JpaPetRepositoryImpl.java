@@ -17,15 +17,23 @@ package org.springframework.samples.petclinic.repository.jpa;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.repository.PetRepository;
+import org.springframework.samples.petclinic.util.Embed;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -41,6 +49,11 @@ import org.springframework.stereotype.Repository;
 @Profile("jpa")
 public class JpaPetRepositoryImpl implements PetRepository {
 
+    /**
+     * Rows fetched per round trip while scrolling over a whole table.
+     */
+    static final int STREAM_FETCH_SIZE = 100;
+
     @PersistenceContext
     private EntityManager em;
 
@@ -52,7 +65,8 @@ public class JpaPetRepositoryImpl implements PetRepository {
 
     @Override
     public Pet findById(int id) {
-        return this.em.find(Pet.class, id);
+        return this.em.find(Pet.class, id,
+            Map.of(JpaOwnerRepositoryImpl.LOAD_GRAPH, this.em.getEntityGraph(Pet.WITH_VISITS_GRAPH)));
     }
 
     @Override
@@ -64,20 +78,95 @@ public class JpaPetRepositoryImpl implements PetRepository {
         }
     }
 
+    @Override
+    public List<Integer> findIds(Collection<Integer> ids) {
+        return this.em.createQuery("SELECT pet.id FROM Pet pet WHERE pet.id IN :ids", Integer.class)
+            .setParameter("ids", ids)
+            .getResultList();
+    }
+
+    @Override
+    public List<Integer> findOwnerIds(Collection<Integer> petIds) {
+        return this.em.createQuery("SELECT DISTINCT pet.owner.id FROM Pet pet WHERE pet.id IN :ids", Integer.class)
+            .setParameter("ids", petIds)
+            .getResultList();
+    }
+
+    @Override
+    public void saveAll(Collection<Pet> pets) {
+        for (Pet pet : pets) {
+            save(pet);
+        }
+    }
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<Pet> findAll() throws DataAccessException {
-		return this.em.createQuery("SELECT pet FROM Pet pet").getResultList();
+		return this.em.createQuery("SELECT pet FROM Pet pet")
+			.setHint(JpaOwnerRepositoryImpl.LOAD_GRAPH, this.em.getEntityGraph(Pet.WITH_VISITS_GRAPH))
+			.getResultList();
+	}
+
+	@Override
+	public List<Pet> findAfter(int afterId, int limit, Set<Embed> embeds) throws DataAccessException {
+		if (!embeds.contains(Embed.VISITS)) {
+			// only single-valued associations are fetched, so the page can be limited directly
+			return this.em.createQuery("SELECT pet FROM Pet pet WHERE pet.id > :afterId ORDER BY pet.id", Pet.class)
+				.setParameter("afterId", afterId)
+				.setHint(JpaOwnerRepositoryImpl.LOAD_GRAPH, this.em.getEntityGraph(Pet.SUMMARY_GRAPH))
+				.setMaxResults(limit)
+				.getResultList();
+		}
+		List<Integer> ids = this.em.createQuery("SELECT pet.id FROM Pet pet WHERE pet.id > :afterId ORDER BY pet.id", Integer.class)
+			.setParameter("afterId", afterId)
+			.setMaxResults(limit)
+			.getResultList();
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		// bounded by id range rather than limited, since the graph fetches the visits collection
+		return this.em.createQuery("SELECT pet FROM Pet pet WHERE pet.id > :afterId AND pet.id <= :lastId ORDER BY pet.id", Pet.class)
+			.setParameter("afterId", afterId)
+			.setParameter("lastId", ids.get(ids.size() - 1))
+			.setHint(JpaOwnerRepositoryImpl.LOAD_GRAPH, this.em.getEntityGraph(Pet.WITH_VISITS_GRAPH))
+			.getResultList();
+	}
+
+	/**
+	 * Scrolls over the pets with their type, owner and visits fetched in the same rows, detaching every pet once it
+	 * has been handled so that the persistence context does not grow with the table.
+	 */
+	@Override
+	public void streamAll(Consumer<? super Pet> action) throws DataAccessException {
+		Session session = this.em.unwrap(Session.class);
+		try (ScrollableResults<Pet> pets = session.createSelectionQuery(
+				"SELECT pet FROM Pet pet JOIN FETCH pet.type JOIN FETCH pet.owner LEFT JOIN FETCH pet.visits ORDER BY pet.id", Pet.class)
+			.setReadOnly(true)
+			.setFetchSize(STREAM_FETCH_SIZE)
+			.scroll(ScrollMode.FORWARD_ONLY)) {
+			while (pets.next()) {
+				Pet pet = pets.get();
+				action.accept(pet);
+				// detaching the pet cascades to its visits; its type and owner are detached explicitly
+				session.detach(pet);
+				session.detach(pet.getType());
+				session.detach(pet.getOwner());
+			}
+		}
 	}
 
 	@Override
 	public void delete(Pet pet) throws DataAccessException {
 		//this.em.remove(this.em.contains(pet) ? pet : this.em.merge(pet));
-		String petId = pet.getId().toString();
-		this.em.createQuery("DELETE FROM Visit visit WHERE pet.id=" + petId).executeUpdate();
-		this.em.createQuery("DELETE FROM Pet pet WHERE id=" + petId).executeUpdate();
-		if (em.contains(pet)) {
-			em.remove(pet);
+		Integer petId = pet.getId();
+		this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id = :petId")
+			.setParameter("petId", petId)
+			.executeUpdate();
+		this.em.createQuery("DELETE FROM Pet pet WHERE pet.id = :petId")
+			.setParameter("petId", petId)
+			.executeUpdate();
+		if (this.em.contains(pet)) {
+			this.em.detach(pet);
 		}
 	}
 
@@ -23,9 +23,13 @@ import java.util.Set;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
+import org.hibernate.Cache;
+import org.hibernate.jpa.HibernateHints;
+
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.repository.SpecialtyRepository;
 import org.springframework.stereotype.Repository;
 
@@ -71,10 +75,22 @@ public class JpaSpecialtyRepositoryImpl implements SpecialtyRepository {
 
 	@Override
 	public void delete(Specialty specialty) throws DataAccessException {
-		this.em.remove(this.em.contains(specialty) ? specialty : this.em.merge(specialty));
 		Integer specId = specialty.getId();
-		this.em.createNativeQuery("DELETE FROM vet_specialties WHERE specialty_id=" + specId).executeUpdate();
-		this.em.createQuery("DELETE FROM Specialty specialty WHERE id=" + specId).executeUpdate();
+		// only the cached vet/specialty collections are stale, not the whole second-level cache
+		this.em.createNativeQuery("DELETE FROM vet_specialties WHERE specialty_id = :specId")
+			.setHint(HibernateHints.HINT_NATIVE_SPACES, "vet_specialties")
+			.setParameter("specId", specId)
+			.executeUpdate();
+		this.em.createQuery("DELETE FROM Specialty specialty WHERE specialty.id = :specId")
+			.setParameter("specId", specId)
+			.executeUpdate();
+		// Hibernate clears the regions touched by bulk deletes on completion only, so evict them for this transaction too
+		Cache cache = this.em.getEntityManagerFactory().getCache().unwrap(Cache.class);
+		cache.evictEntityData(Specialty.class, specId);
+		cache.evictCollectionData(Vet.class.getName() + ".specialties");
+		if (this.em.contains(specialty)) {
+			this.em.detach(specialty);
+		}
 	}
 
 }
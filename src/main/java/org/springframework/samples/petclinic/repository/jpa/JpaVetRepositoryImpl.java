@@ -24,6 +24,8 @@ import org.springframework.stereotype.Repository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * JPA implementation of the {@link VetRepository} interface.
@@ -44,13 +46,33 @@ public class JpaVetRepositoryImpl implements VetRepository {
 
 	@Override
 	public Vet findById(int id) throws DataAccessException {
-		return this.em.find(Vet.class, id);
+		return this.em.find(Vet.class, id,
+			Map.of(JpaOwnerRepositoryImpl.LOAD_GRAPH, this.em.getEntityGraph(Vet.WITH_SPECIALTIES_GRAPH)));
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<Vet> findAll() throws DataAccessException {
-		return this.em.createQuery("SELECT vet FROM Vet vet").getResultList();
+		return this.em.createQuery("SELECT vet FROM Vet vet")
+			.setHint(JpaOwnerRepositoryImpl.LOAD_GRAPH, this.em.getEntityGraph(Vet.WITH_SPECIALTIES_GRAPH))
+			.getResultList();
+	}
+
+	@Override
+	public List<Vet> findAfter(int afterId, int limit) throws DataAccessException {
+		List<Integer> ids = this.em.createQuery("SELECT vet.id FROM Vet vet WHERE vet.id > :afterId ORDER BY vet.id", Integer.class)
+			.setParameter("afterId", afterId)
+			.setMaxResults(limit)
+			.getResultList();
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		// bounded by id range rather than limited, since the graph fetches the specialties collection
+		return this.em.createQuery("SELECT vet FROM Vet vet WHERE vet.id > :afterId AND vet.id <= :lastId ORDER BY vet.id", Vet.class)
+			.setParameter("afterId", afterId)
+			.setParameter("lastId", ids.get(ids.size() - 1))
+			.setHint(JpaOwnerRepositoryImpl.LOAD_GRAPH, this.em.getEntityGraph(Vet.WITH_SPECIALTIES_GRAPH))
+			.getResultList();
 	}
 
 	@Override
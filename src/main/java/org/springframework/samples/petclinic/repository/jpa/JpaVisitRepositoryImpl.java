@@ -15,15 +15,22 @@
  */
 package org.springframework.samples.petclinic.repository.jpa;
 
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
+import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.repository.VisitRepository;
 import org.springframework.stereotype.Repository;
@@ -56,6 +63,13 @@ public class JpaVisitRepositoryImpl implements VisitRepository {
         }
     }
 
+    @Override
+    public void saveAll(Collection<Visit> visits) {
+        for (Visit visit : visits) {
+            save(visit);
+        }
+    }
+
 
     @Override
     @SuppressWarnings("unchecked")
@@ -76,6 +90,40 @@ public class JpaVisitRepositoryImpl implements VisitRepository {
         return this.em.createQuery("SELECT v FROM Visit v").getResultList();
 	}
 
+	@Override
+	public List<Visit> findAfter(int afterId, int limit) throws DataAccessException {
+		return this.em.createQuery("SELECT v FROM Visit v WHERE v.id > :afterId ORDER BY v.id", Visit.class)
+			.setParameter("afterId", afterId)
+			.setMaxResults(limit)
+			.getResultList();
+	}
+
+	/**
+	 * Scrolls over the visit columns alone and builds an unmanaged visit per row whose pet only carries its id, which is
+	 * all an exported visit refers to, so that neither pets nor their owners are loaded.
+	 */
+	@Override
+	public void streamAll(Consumer<? super Visit> action) throws DataAccessException {
+		Session session = this.em.unwrap(Session.class);
+		try (ScrollableResults<Object[]> rows = session.createSelectionQuery(
+				"SELECT v.id, v.version, v.date, v.description, v.pet.id FROM Visit v ORDER BY v.id", Object[].class)
+			.setFetchSize(JpaPetRepositoryImpl.STREAM_FETCH_SIZE)
+			.scroll(ScrollMode.FORWARD_ONLY)) {
+			while (rows.next()) {
+				Object[] row = rows.get();
+				Visit visit = new Visit();
+				visit.setId((Integer) row[0]);
+				visit.setVersion((Integer) row[1]);
+				visit.setDate((LocalDate) row[2]);
+				visit.setDescription((String) row[3]);
+				Pet pet = new Pet();
+				pet.setId((Integer) row[4]);
+				visit.setPet(pet);
+				action.accept(visit);
+			}
+		}
+	}
+
 	@Override
 	public void delete(Visit visit) throws DataAccessException {
         this.em.remove(this.em.contains(visit) ? visit : this.em.merge(visit));
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.EntityIndex;
+
+/**
+ * One row of the owner/pet/visit outer-join projection: exactly the columns of an <code>OwnerDto</code>, read without
+ * managed entities. Pet and visit columns are <code>null</code> for owners without pets or pets without visits, and
+ * for rows of the narrower select lists that leave them out.
+ *
+ * @see SpringDataOwnerRepository
+ */
+public record OwnerProjection(Integer id, String firstName, String lastName, String address, String city,
+                              String telephone, Integer petId, String petName, LocalDate petBirthDate,
+                              Integer typeId, String typeName, Integer visitId, LocalDate visitDate,
+                              String visitDescription) {
+
+    /**
+     * JPQL select list matching the record components, for queries over
+     * <code>Owner owner LEFT JOIN owner.pets pet LEFT JOIN pet.type type LEFT JOIN pet.visits visit</code>.
+     */
+    static final String SELECT = "SELECT new org.springframework.samples.petclinic.repository.springdatajpa.OwnerProjection("
+        + "owner.id, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone, "
+        + "pet.id, pet.name, pet.birthDate, type.id, type.name, visit.id, visit.date, visit.description) "
+        + "FROM Owner owner LEFT JOIN owner.pets pet LEFT JOIN pet.type type LEFT JOIN pet.visits visit ";
+
+    /**
+     * JPQL select list of the owner columns only, for queries over <code>Owner owner</code>.
+     */
+    static final String SELECT_SUMMARY = "SELECT new org.springframework.samples.petclinic.repository.springdatajpa.OwnerProjection("
+        + "owner.id, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone) "
+        + "FROM Owner owner ";
+
+    /**
+     * JPQL select list of the owner and pet columns, for queries over
+     * <code>Owner owner LEFT JOIN owner.pets pet LEFT JOIN pet.type type</code>.
+     */
+    static final String SELECT_WITH_PETS = "SELECT new org.springframework.samples.petclinic.repository.springdatajpa.OwnerProjection("
+        + "owner.id, owner.firstName, owner.lastName, owner.address, owner.city, owner.telephone, "
+        + "pet.id, pet.name, pet.birthDate, type.id, type.name) "
+        + "FROM Owner owner LEFT JOIN owner.pets pet LEFT JOIN pet.type type ";
+
+    static final String ORDER_BY = " ORDER BY owner.id, pet.id";
+
+    /**
+     * Row of {@link #SELECT_SUMMARY}.
+     */
+    public OwnerProjection(Integer id, String firstName, String lastName, String address, String city,
+                           String telephone) {
+        this(id, firstName, lastName, address, city, telephone, null, null, null, null, null);
+    }
+
+    /**
+     * Row of {@link #SELECT_WITH_PETS}.
+     */
+    public OwnerProjection(Integer id, String firstName, String lastName, String address, String city,
+                           String telephone, Integer petId, String petName, LocalDate petBirthDate,
+                           Integer typeId, String typeName) {
+        this(id, firstName, lastName, address, city, telephone, petId, petName, petBirthDate, typeId, typeName,
+            null, null, null);
+    }
+
+    /**
+     * Assemble unmanaged owners with their pets, pet types and visits from rows ordered by owner id and pet id; owners
+     * read without pets get none, and pets read without visits get none.
+     */
+    static Collection<Owner> toOwners(List<OwnerProjection> rows) {
+        List<Owner> owners = new ArrayList<>();
+        EntityIndex<PetType> types = new EntityIndex<>(PetType.class);
+        Owner owner = null;
+        Pet pet = null;
+        for (OwnerProjection row : rows) {
+            if (owner == null || !owner.getId().equals(row.id())) {
+                owner = new Owner();
+                owner.setId(row.id());
+                owner.setFirstName(row.firstName());
+                owner.setLastName(row.lastName());
+                owner.setAddress(row.address());
+                owner.setCity(row.city());
+                owner.setTelephone(row.telephone());
+                owners.add(owner);
+                pet = null;
+            }
+            if (row.petId() == null) {
+                continue;
+            }
+            if (pet == null || !pet.getId().equals(row.petId())) {
+                pet = new Pet();
+                pet.setId(row.petId());
+                pet.setName(row.petName());
+                pet.setBirthDate(row.petBirthDate());
+                PetType type = types.get(row.typeId());
+                if (type == null) {
+                    type = new PetType();
+                    type.setId(row.typeId());
+                    type.setName(row.typeName());
+                    types.add(type);
+                }
+                pet.setType(type);
+                owner.addPet(pet);
+            }
+            if (row.visitId() != null) {
+                Visit visit = new Visit();
+                visit.setId(row.visitId());
+                visit.setDate(row.visitDate());
+                visit.setDescription(row.visitDescription());
+                pet.addVisit(visit);
+            }
+        }
+        return owners;
+    }
+
+}
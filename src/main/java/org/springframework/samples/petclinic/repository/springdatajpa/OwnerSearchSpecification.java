@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.util.OwnerSearch;
+
+/**
+ * The filters of an {@link OwnerSearch} and the position of the requested page as a JPA criteria predicate, along
+ * with the matching {@link Sort}. The pet filters are an <code>EXISTS</code> subquery, so that an owner with several
+ * matching pets is returned once.
+ */
+final class OwnerSearchSpecification implements Specification<Owner> {
+
+    private final OwnerSearch search;
+
+    private final OwnerSearch.After after;
+
+    OwnerSearchSpecification(OwnerSearch search, OwnerSearch.After after) {
+        this.search = search;
+        this.after = after;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<Owner> owner, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (this.search.lastName() != null) {
+            predicates.add(cb.like(owner.get("lastNameLower"), Owner.normalizeLastName(this.search.lastName()) + "%"));
+        }
+        if (this.search.city() != null) {
+            predicates.add(cb.equal(owner.get("city"), this.search.city()));
+        }
+        if (this.search.telephone() != null) {
+            predicates.add(cb.equal(owner.get("telephone"), this.search.telephone()));
+        }
+        if (this.search.petName() != null || this.search.petType() != null) {
+            Subquery<Integer> pets = query.subquery(Integer.class);
+            Root<Pet> pet = pets.from(Pet.class);
+            List<Predicate> petPredicates = new ArrayList<>();
+            petPredicates.add(cb.equal(pet.get("owner"), owner));
+            if (this.search.petName() != null) {
+                petPredicates.add(cb.like(pet.get("name"), this.search.petName() + "%"));
+            }
+            if (this.search.petType() != null) {
+                petPredicates.add(cb.equal(pet.get("type").get("name"), this.search.petType()));
+            }
+            predicates.add(cb.exists(pets.select(pet.get("id")).where(petPredicates.toArray(new Predicate[0]))));
+        }
+        if (this.after != null) {
+            predicates.add(position(owner, cb));
+        }
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * The order of the search: by the sort key, then by id, in the same direction.
+     */
+    Sort sort() {
+        Sort.Direction direction = this.search.descending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        String property = property();
+        return property == null ? Sort.by(direction, "id") : Sort.by(direction, property, "id");
+    }
+
+    private Predicate position(Root<Owner> owner, CriteriaBuilder cb) {
+        boolean descending = this.search.descending();
+        Path<Integer> id = owner.get("id");
+        int afterId = this.after.id();
+        String property = property();
+        if (property == null) {
+            return descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+        }
+        Path<String> value = owner.get(property);
+        String afterValue = this.after.value();
+        // the inclusive bound on the sort property alone lets the (property, id) index seek to the position
+        return descending
+            ? cb.and(cb.lessThanOrEqualTo(value, afterValue), cb.or(cb.lessThan(value, afterValue), cb.lessThan(id, afterId)))
+            : cb.and(cb.greaterThanOrEqualTo(value, afterValue), cb.or(cb.greaterThan(value, afterValue), cb.greaterThan(id, afterId)));
+    }
+
+    private String property() {
+        return switch (this.search.sortKey()) {
+            case ID -> null;
+            case LAST_NAME -> "lastName";
+            case CITY -> "city";
+        };
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.EntityIndex;
+
+/**
+ * One row of the pet/visit outer-join projection: the columns of a <code>PetDto</code> plus the owner's name, read
+ * without managed entities. Visit columns are <code>null</code> for pets without visits.
+ *
+ * @see SpringDataPetRepository
+ */
+public record PetProjection(Integer id, String name, LocalDate birthDate, Integer typeId, String typeName,
+                            Integer ownerId, String ownerFirstName, String ownerLastName, Integer visitId,
+                            LocalDate visitDate, String visitDescription) {
+
+    static final String SELECT = "SELECT new org.springframework.samples.petclinic.repository.springdatajpa.PetProjection("
+        + "pet.id, pet.name, pet.birthDate, type.id, type.name, "
+        + "owner.id, owner.firstName, owner.lastName, "
+        + "visit.id, visit.date, visit.description) "
+        + "FROM Pet pet JOIN pet.type type JOIN pet.owner owner LEFT JOIN pet.visits visit ";
+
+    /**
+     * Select list leaving out the visits, so that there is one row per pet.
+     */
+    static final String SELECT_SUMMARY = "SELECT new org.springframework.samples.petclinic.repository.springdatajpa.PetProjection("
+        + "pet.id, pet.name, pet.birthDate, type.id, type.name, "
+        + "owner.id, owner.firstName, owner.lastName) "
+        + "FROM Pet pet JOIN pet.type type JOIN pet.owner owner ";
+
+    static final String ORDER_BY = " ORDER BY pet.id";
+
+    /**
+     * Row of {@link #SELECT_SUMMARY}.
+     */
+    public PetProjection(Integer id, String name, LocalDate birthDate, Integer typeId, String typeName,
+                         Integer ownerId, String ownerFirstName, String ownerLastName) {
+        this(id, name, birthDate, typeId, typeName, ownerId, ownerFirstName, ownerLastName, null, null, null);
+    }
+
+    /**
+     * Assemble unmanaged pets with their types, owners and visits from rows ordered by pet id. Types and owners are
+     * shared between the pets that reference them.
+     */
+    static Collection<Pet> toPets(List<PetProjection> rows) {
+        List<Pet> pets = new ArrayList<>();
+        EntityIndex<PetType> types = new EntityIndex<>(PetType.class);
+        EntityIndex<Owner> owners = new EntityIndex<>(Owner.class);
+        Pet pet = null;
+        for (PetProjection row : rows) {
+            if (pet == null || !pet.getId().equals(row.id())) {
+                pet = new Pet();
+                pet.setId(row.id());
+                pet.setName(row.name());
+                pet.setBirthDate(row.birthDate());
+                PetType type = types.get(row.typeId());
+                if (type == null) {
+                    type = new PetType();
+                    type.setId(row.typeId());
+                    type.setName(row.typeName());
+                    types.add(type);
+                }
+                pet.setType(type);
+                Owner owner = owners.get(row.ownerId());
+                if (owner == null) {
+                    owner = new Owner();
+                    owner.setId(row.ownerId());
+                    owner.setFirstName(row.ownerFirstName());
+                    owner.setLastName(row.ownerLastName());
+                    owners.add(owner);
+                }
+                owner.addPet(pet);
+                pets.add(pet);
+            }
+            if (row.visitId() != null) {
+                Visit visit = new Visit();
+                visit.setId(row.visitId());
+                visit.setDate(row.visitDate());
+                visit.setDescription(row.visitDescription());
+                pet.addVisit(visit);
+            }
+        }
+        return pets;
+    }
+
+    /**
+     * Hand unmanaged pets with their types and visits to the given action as rows ordered by pet id arrive: a pet is
+     * complete once the first row of the next one is read. Owners are not shared, so that handled pets can be
+     * collected.
+     */
+    static void forEachPet(Iterator<PetProjection> rows, Consumer<? super Pet> action) {
+        EntityIndex<PetType> types = new EntityIndex<>(PetType.class);
+        Pet pet = null;
+        while (rows.hasNext()) {
+            PetProjection row = rows.next();
+            if (pet == null || !pet.getId().equals(row.id())) {
+                if (pet != null) {
+                    action.accept(pet);
+                }
+                pet = new Pet();
+                pet.setId(row.id());
+                pet.setName(row.name());
+                pet.setBirthDate(row.birthDate());
+                PetType type = types.get(row.typeId());
+                if (type == null) {
+                    type = new PetType();
+                    type.setId(row.typeId());
+                    type.setName(row.typeName());
+                    types.add(type);
+                }
+                pet.setType(type);
+                Owner owner = new Owner();
+                owner.setId(row.ownerId());
+                owner.setFirstName(row.ownerFirstName());
+                owner.setLastName(row.ownerLastName());
+                owner.addPet(pet);
+            }
+            if (row.visitId() != null) {
+                Visit visit = new Visit();
+                visit.setId(row.visitId());
+                visit.setDate(row.visitDate());
+                visit.setDescription(row.visitDescription());
+                pet.addVisit(visit);
+            }
+        }
+        if (pet != null) {
+            action.accept(pet);
+        }
+    }
+
+}
@@ -27,6 +27,12 @@ import org.springframework.samples.petclinic.model.PetType;
 @Profile("spring-data-jpa")
 public interface PetTypeRepositoryOverride {
 	
+	/**
+	 * Looks the pet type up with {@link jakarta.persistence.EntityManager#find}, which reads the second-level cache,
+	 * instead of the query that would be derived from the method name.
+	 */
+	PetType findById(int id);
+
 	void delete(PetType petType);
 
 }
@@ -27,6 +27,12 @@ import org.springframework.samples.petclinic.model.Specialty;
 @Profile("spring-data-jpa")
 public interface SpecialtyRepositoryOverride {
 	
+	/**
+	 * Looks the specialty up with {@link jakarta.persistence.EntityManager#find}, which reads the second-level cache,
+	 * instead of the query that would be derived from the method name.
+	 */
+	Specialty findById(int id);
+
 	void delete(Specialty specialty);
 
 }
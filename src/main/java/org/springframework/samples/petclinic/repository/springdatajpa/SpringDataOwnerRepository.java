@@ -16,13 +16,23 @@
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.repository.OwnerRepository;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.samples.petclinic.util.EntityIndex;
+import org.springframework.samples.petclinic.util.OwnerSearch;
 
 /**
  * Spring Data JPA specialization of the {@link OwnerRepository} interface
@@ -32,13 +42,117 @@ import org.springframework.samples.petclinic.repository.OwnerRepository;
  */
 
 @Profile("spring-data-jpa")
-public interface SpringDataOwnerRepository extends OwnerRepository, Repository<Owner, Integer> {
+public interface SpringDataOwnerRepository extends OwnerRepository, Repository<Owner, Integer>, JpaSpecificationExecutor<Owner> {
 
+    /**
+     * Read-only list path: owners are assembled from an {@link OwnerProjection} instead of being loaded as managed
+     * entities, so the persistence context neither tracks nor snapshots them.
+     */
     @Override
-    @Query("SELECT DISTINCT owner FROM Owner owner left join fetch owner.pets WHERE owner.lastName LIKE :lastName%")
-    Collection<Owner> findByLastName(@Param("lastName") String lastName);
+    default Collection<Owner> findByLastName(String lastName) {
+        return OwnerProjection.toOwners(findProjectionsByLastName(Owner.normalizeLastName(lastName)));
+    }
+
+    /**
+     * @param lastName a last name prefix, {@link Owner#normalizeLastName(String) normalized} as are the other last
+     * name queries of this repository
+     */
+    @Query(OwnerProjection.SELECT + "WHERE owner.lastNameLower LIKE :lastName%" + OwnerProjection.ORDER_BY)
+    List<OwnerProjection> findProjectionsByLastName(@Param("lastName") String lastName);
 
     @Override
-    @Query("SELECT owner FROM Owner owner left join fetch owner.pets WHERE owner.id =:id")
+    @EntityGraph(value = Owner.FULL_GRAPH, type = EntityGraphType.LOAD)
+    @Query("SELECT owner FROM Owner owner WHERE owner.id =:id")
     Owner findById(@Param("id") int id);
+
+    @Override
+    @Query("SELECT owner.id FROM Owner owner WHERE owner.id IN :ids")
+    List<Integer> findIds(@Param("ids") Collection<Integer> ids) throws DataAccessException;
+
+    /**
+     * Read-only list path, see {@link #findByLastName(String)}.
+     */
+    @Override
+    default Collection<Owner> findAll() {
+        return OwnerProjection.toOwners(findAllProjections());
+    }
+
+    @Query(OwnerProjection.SELECT + OwnerProjection.ORDER_BY)
+    List<OwnerProjection> findAllProjections();
+
+    /**
+     * Keyset page read in two steps when pets are embedded: the page ids are selected with a limit, then the owners
+     * of those ids are read through the {@link OwnerProjection}, whose joined rows cannot be limited directly.
+     * Without pets, the owner columns are read in one limited query.
+     */
+    @Override
+    default List<Owner> findAfter(int afterId, int limit, Set<Embed> embeds) {
+        if (!embeds.contains(Embed.PETS)) {
+            return List.copyOf(OwnerProjection.toOwners(findSummaryProjectionsAfter(afterId, Limit.of(limit))));
+        }
+        List<Integer> ids = findIdsAfter(afterId, Limit.of(limit));
+        return ids.isEmpty() ? List.of() : List.copyOf(OwnerProjection.toOwners(
+            embeds.contains(Embed.VISITS) ? findProjectionsByIdIn(ids) : findProjectionsWithPetsByIdIn(ids)));
+    }
+
+    /**
+     * Keyset page of the owners matching a last name prefix, see {@link #findAfter(int, int, Set)}.
+     */
+    @Override
+    default List<Owner> findByLastNameAfter(String lastName, int afterId, int limit, Set<Embed> embeds) {
+        if (!embeds.contains(Embed.PETS)) {
+            return List.copyOf(OwnerProjection.toOwners(findSummaryProjectionsByLastNameAfter(Owner.normalizeLastName(lastName), afterId, Limit.of(limit))));
+        }
+        List<Integer> ids = findIdsByLastNameAfter(Owner.normalizeLastName(lastName), afterId, Limit.of(limit));
+        return ids.isEmpty() ? List.of() : List.copyOf(OwnerProjection.toOwners(
+            embeds.contains(Embed.VISITS) ? findProjectionsByIdIn(ids) : findProjectionsWithPetsByIdIn(ids)));
+    }
+
+    /**
+     * Search page read through an {@link OwnerSearchSpecification}: the owners of the page are selected with a limit,
+     * then, when pets are embedded, read again through the {@link OwnerProjection} and put back in the search order.
+     * Within the read-only transaction of the service, the selected owners are not snapshotted by Hibernate.
+     */
+    @Override
+    default List<Owner> search(OwnerSearch search, OwnerSearch.After after, int limit, Set<Embed> embeds) {
+        OwnerSearchSpecification specification = new OwnerSearchSpecification(search, after);
+        List<Owner> owners = findBy(specification, query -> query.sortBy(specification.sort()).limit(limit).all());
+        if (!embeds.contains(Embed.PETS) || owners.isEmpty()) {
+            return owners;
+        }
+        List<Integer> ids = owners.stream().map(Owner::getId).toList();
+        EntityIndex<Owner> index = new EntityIndex<>(Owner.class, ids.size());
+        OwnerProjection.toOwners(embeds.contains(Embed.VISITS) ? findProjectionsByIdIn(ids) : findProjectionsWithPetsByIdIn(ids))
+            .forEach(index::add);
+        return ids.stream().map(index::getById).toList();
+    }
+
+    @Query("SELECT owner.id FROM Owner owner WHERE owner.id > :afterId ORDER BY owner.id")
+    List<Integer> findIdsAfter(@Param("afterId") int afterId, Limit limit);
+
+    @Query("SELECT owner.id FROM Owner owner WHERE owner.lastNameLower LIKE :lastName% AND owner.id > :afterId ORDER BY owner.id")
+    List<Integer> findIdsByLastNameAfter(@Param("lastName") String lastName, @Param("afterId") int afterId, Limit limit);
+
+    @Query(OwnerProjection.SELECT_SUMMARY + "WHERE owner.id > :afterId ORDER BY owner.id")
+    List<OwnerProjection> findSummaryProjectionsAfter(@Param("afterId") int afterId, Limit limit);
+
+    @Query(OwnerProjection.SELECT_SUMMARY + "WHERE owner.lastNameLower LIKE :lastName% AND owner.id > :afterId ORDER BY owner.id")
+    List<OwnerProjection> findSummaryProjectionsByLastNameAfter(@Param("lastName") String lastName, @Param("afterId") int afterId, Limit limit);
+
+    @Query(OwnerProjection.SELECT + "WHERE owner.id IN :ids" + OwnerProjection.ORDER_BY)
+    List<OwnerProjection> findProjectionsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(OwnerProjection.SELECT_WITH_PETS + "WHERE owner.id IN :ids" + OwnerProjection.ORDER_BY)
+    List<OwnerProjection> findProjectionsWithPetsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Delegates to the <code>saveAll</code> of the Spring Data base repository, which a method with a
+     * <code>Collection</code> parameter does not resolve to: Spring Data would try to derive a query from its name.
+     */
+    @Override
+    default void saveAll(Collection<Owner> owners) throws DataAccessException {
+        saveAll((Iterable<Owner>) owners);
+    }
+
+    <S extends Owner> List<S> saveAll(Iterable<S> entities);
 }
@@ -15,15 +15,29 @@
  */
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.repository.PetRepository;
+import org.springframework.samples.petclinic.util.Embed;
 
 /**
  * Spring Data JPA specialization of the {@link PetRepository} interface
@@ -38,4 +52,72 @@ public interface SpringDataPetRepository extends PetRepository, Repository<Pet,
     @Override
     @Query("SELECT ptype FROM PetType ptype ORDER BY ptype.name")
     List<PetType> findPetTypes() throws DataAccessException;
+
+    @Override
+    @Query("SELECT pet.id FROM Pet pet WHERE pet.id IN :ids")
+    List<Integer> findIds(@Param("ids") Collection<Integer> ids) throws DataAccessException;
+
+    @Override
+    @Query("SELECT DISTINCT pet.owner.id FROM Pet pet WHERE pet.id IN :ids")
+    List<Integer> findOwnerIds(@Param("ids") Collection<Integer> petIds) throws DataAccessException;
+
+    @Override
+    @EntityGraph(value = Pet.WITH_VISITS_GRAPH, type = EntityGraphType.LOAD)
+    Pet findById(int id) throws DataAccessException;
+
+    /**
+     * Read-only list path: pets are assembled from a {@link PetProjection} instead of being loaded as managed
+     * entities, so the persistence context neither tracks nor snapshots them.
+     */
+    @Override
+    default Collection<Pet> findAll() throws DataAccessException {
+        return PetProjection.toPets(findAllProjections());
+    }
+
+    @Query(PetProjection.SELECT + PetProjection.ORDER_BY)
+    List<PetProjection> findAllProjections();
+
+    /**
+     * Keyset page read in two steps when visits are embedded: the page ids are selected with a limit, then the pets
+     * of those ids are read through the {@link PetProjection}, whose joined rows cannot be limited directly. Without
+     * visits, there is one row per pet and the page is read in one limited query.
+     */
+    @Override
+    default List<Pet> findAfter(int afterId, int limit, Set<Embed> embeds) throws DataAccessException {
+        if (!embeds.contains(Embed.VISITS)) {
+            return List.copyOf(PetProjection.toPets(findSummaryProjectionsAfter(afterId, Limit.of(limit))));
+        }
+        List<Integer> ids = findIdsAfter(afterId, Limit.of(limit));
+        return ids.isEmpty() ? List.of() : List.copyOf(PetProjection.toPets(findProjectionsByIdIn(ids)));
+    }
+
+    @Query(PetProjection.SELECT_SUMMARY + "WHERE pet.id > :afterId" + PetProjection.ORDER_BY)
+    List<PetProjection> findSummaryProjectionsAfter(@Param("afterId") int afterId, Limit limit);
+
+    @Query("SELECT pet.id FROM Pet pet WHERE pet.id > :afterId ORDER BY pet.id")
+    List<Integer> findIdsAfter(@Param("afterId") int afterId, Limit limit);
+
+    @Query(PetProjection.SELECT + "WHERE pet.id IN :ids" + PetProjection.ORDER_BY)
+    List<PetProjection> findProjectionsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Export path: {@link PetProjection} rows are streamed from the scrolled result and assembled one pet at a time.
+     */
+    @Override
+    default void streamAll(Consumer<? super Pet> action) throws DataAccessException {
+        try (Stream<PetProjection> rows = streamAllProjections()) {
+            PetProjection.forEachPet(rows.iterator(), action);
+        }
+    }
+
+    @Query(PetProjection.SELECT + PetProjection.ORDER_BY)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    Stream<PetProjection> streamAllProjections();
+
+    @Override
+    default void saveAll(Collection<Pet> pets) throws DataAccessException {
+        saveAll((Iterable<Pet>) pets);
+    }
+
+    <S extends Pet> List<S> saveAll(Iterable<S> entities);
 }
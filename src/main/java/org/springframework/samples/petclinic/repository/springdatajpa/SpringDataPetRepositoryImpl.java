@@ -35,12 +35,16 @@ public class SpringDataPetRepositoryImpl implements PetRepositoryOverride {
 
 	@Override
 	public void delete(Pet pet) {
-		String petId = pet.getId().toString();
-		this.em.createQuery("DELETE FROM Visit visit WHERE pet.id=" + petId).executeUpdate();
-		this.em.createQuery("DELETE FROM Pet pet WHERE id=" + petId).executeUpdate();
-        if (em.contains(pet)) {
-            em.remove(pet);
-        }
+		Integer petId = pet.getId();
+		this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id = :petId")
+			.setParameter("petId", petId)
+			.executeUpdate();
+		this.em.createQuery("DELETE FROM Pet pet WHERE pet.id = :petId")
+			.setParameter("petId", petId)
+			.executeUpdate();
+		if (this.em.contains(pet)) {
+			this.em.detach(pet);
+		}
 	}
 
 }
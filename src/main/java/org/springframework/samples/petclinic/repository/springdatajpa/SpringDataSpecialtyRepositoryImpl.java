@@ -19,8 +19,12 @@ package org.springframework.samples.petclinic.repository.springdatajpa;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
+import org.hibernate.Cache;
+import org.hibernate.jpa.HibernateHints;
+
 import org.springframework.context.annotation.Profile;
 import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
 
 /**
  * @author Vitaliy Fedoriv
@@ -33,12 +37,29 @@ public class SpringDataSpecialtyRepositoryImpl implements SpecialtyRepositoryOve
 	@PersistenceContext
     private EntityManager em;
 
+	@Override
+	public Specialty findById(int id) {
+		return this.em.find(Specialty.class, id);
+	}
+
 	@Override
 	public void delete(Specialty specialty) {
-        this.em.remove(this.em.contains(specialty) ? specialty : this.em.merge(specialty));
 		Integer specId = specialty.getId();
-		this.em.createNativeQuery("DELETE FROM vet_specialties WHERE specialty_id=" + specId).executeUpdate();
-		this.em.createQuery("DELETE FROM Specialty specialty WHERE id=" + specId).executeUpdate();
+		// only the cached vet/specialty collections are stale, not the whole second-level cache
+		this.em.createNativeQuery("DELETE FROM vet_specialties WHERE specialty_id = :specId")
+			.setHint(HibernateHints.HINT_NATIVE_SPACES, "vet_specialties")
+			.setParameter("specId", specId)
+			.executeUpdate();
+		this.em.createQuery("DELETE FROM Specialty specialty WHERE specialty.id = :specId")
+			.setParameter("specId", specId)
+			.executeUpdate();
+		// Hibernate clears the regions touched by bulk deletes on completion only, so evict them for this transaction too
+		Cache cache = this.em.getEntityManagerFactory().getCache().unwrap(Cache.class);
+		cache.evictEntityData(Specialty.class, specId);
+		cache.evictCollectionData(Vet.class.getName() + ".specialties");
+		if (this.em.contains(specialty)) {
+			this.em.detach(specialty);
+		}
 	}
 
 }
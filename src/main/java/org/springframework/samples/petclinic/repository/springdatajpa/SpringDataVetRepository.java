@@ -15,8 +15,17 @@
  */
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.repository.VetRepository;
 
@@ -29,4 +38,36 @@ import org.springframework.samples.petclinic.repository.VetRepository;
 
 @Profile("spring-data-jpa")
 public interface SpringDataVetRepository extends VetRepository, Repository<Vet, Integer> {
+
+    @Override
+    @EntityGraph(value = Vet.WITH_SPECIALTIES_GRAPH, type = EntityGraphType.LOAD)
+    Vet findById(int id) throws DataAccessException;
+
+    /**
+     * Read-only list path: vets are assembled from a {@link VetProjection} instead of being loaded as managed
+     * entities, so the persistence context neither tracks nor snapshots them.
+     */
+    @Override
+    default Collection<Vet> findAll() throws DataAccessException {
+        return VetProjection.toVets(findAllProjections());
+    }
+
+    @Query(VetProjection.SELECT + VetProjection.ORDER_BY)
+    List<VetProjection> findAllProjections();
+
+    /**
+     * Keyset page read in two steps: the page ids are selected with a limit, then the vets of those ids are read
+     * through the {@link VetProjection}, whose joined rows cannot be limited directly.
+     */
+    @Override
+    default List<Vet> findAfter(int afterId, int limit) throws DataAccessException {
+        List<Integer> ids = findIdsAfter(afterId, Limit.of(limit));
+        return ids.isEmpty() ? List.of() : List.copyOf(VetProjection.toVets(findProjectionsByIdIn(ids)));
+    }
+
+    @Query("SELECT vet.id FROM Vet vet WHERE vet.id > :afterId ORDER BY vet.id")
+    List<Integer> findIdsAfter(@Param("afterId") int afterId, Limit limit);
+
+    @Query(VetProjection.SELECT + "WHERE vet.id IN :ids" + VetProjection.ORDER_BY)
+    List<VetProjection> findProjectionsByIdIn(@Param("ids") Collection<Integer> ids);
 }
@@ -15,8 +15,22 @@
  */
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.repository.VisitRepository;
 
@@ -29,4 +43,34 @@ import org.springframework.samples.petclinic.repository.VisitRepository;
 
 @Profile("spring-data-jpa")
 public interface SpringDataVisitRepository extends VisitRepository, Repository<Visit, Integer>, VisitRepositoryOverride {
+
+    @Override
+    default List<Visit> findAfter(int afterId, int limit) throws DataAccessException {
+        return findAfter(afterId, Limit.of(limit));
+    }
+
+    @Query("SELECT visit FROM Visit visit WHERE visit.id > :afterId ORDER BY visit.id")
+    List<Visit> findAfter(@Param("afterId") int afterId, Limit limit);
+
+    /**
+     * Export path: visits are built from {@link VisitProjection} rows as they are streamed from the scrolled result,
+     * so the persistence context neither tracks nor snapshots them.
+     */
+    @Override
+    default void streamAll(Consumer<? super Visit> action) throws DataAccessException {
+        try (Stream<VisitProjection> rows = streamAllProjections()) {
+            rows.map(VisitProjection::toVisit).forEach(action);
+        }
+    }
+
+    @Query(VisitProjection.SELECT + VisitProjection.ORDER_BY)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    Stream<VisitProjection> streamAllProjections();
+
+    @Override
+    default void saveAll(Collection<Visit> visits) throws DataAccessException {
+        saveAll((Iterable<Visit>) visits);
+    }
+
+    <S extends Visit> List<S> saveAll(Iterable<S> entities);
 }
@@ -36,11 +36,12 @@ public class SpringDataVisitRepositoryImpl implements VisitRepositoryOverride {
 
 	@Override
 	public void delete(Visit visit) throws DataAccessException {
-		String visitId = visit.getId().toString();
-		this.em.createQuery("DELETE FROM Visit visit WHERE id=" + visitId).executeUpdate();
-        if (em.contains(visit)) {
-            em.remove(visit);
-        }
+		this.em.createQuery("DELETE FROM Visit visit WHERE visit.id = :visitId")
+			.setParameter("visitId", visit.getId())
+			.executeUpdate();
+		if (this.em.contains(visit)) {
+			this.em.detach(visit);
+		}
 	}
 
 
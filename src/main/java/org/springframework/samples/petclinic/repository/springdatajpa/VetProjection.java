@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.util.EntityIndex;
+
+/**
+ * One row of the vet/specialty outer-join projection: the columns of a <code>VetDto</code> plus the versions that the
+ * list's entity tag covers, read without managed entities. Specialty columns are <code>null</code> for vets without
+ * specialties.
+ *
+ * @see SpringDataVetRepository
+ */
+public record VetProjection(Integer id, int version, String firstName, String lastName, Integer specialtyId,
+                            Integer specialtyVersion, String specialtyName) {
+
+    static final String SELECT = "SELECT new org.springframework.samples.petclinic.repository.springdatajpa.VetProjection("
+        + "vet.id, vet.version, vet.firstName, vet.lastName, specialty.id, specialty.version, specialty.name) "
+        + "FROM Vet vet LEFT JOIN vet.specialties specialty ";
+
+    static final String ORDER_BY = " ORDER BY vet.id";
+
+    /**
+     * Assemble unmanaged vets with their specialties from rows ordered by vet id. Specialties are shared between the
+     * vets that have them.
+     */
+    static Collection<Vet> toVets(List<VetProjection> rows) {
+        List<Vet> vets = new ArrayList<>();
+        EntityIndex<Specialty> specialties = new EntityIndex<>(Specialty.class);
+        Vet vet = null;
+        for (VetProjection row : rows) {
+            if (vet == null || !vet.getId().equals(row.id())) {
+                vet = new Vet();
+                vet.setId(row.id());
+                vet.setVersion(row.version());
+                vet.setFirstName(row.firstName());
+                vet.setLastName(row.lastName());
+                vets.add(vet);
+            }
+            if (row.specialtyId() != null) {
+                Specialty specialty = specialties.get(row.specialtyId());
+                if (specialty == null) {
+                    specialty = new Specialty();
+                    specialty.setId(row.specialtyId());
+                    specialty.setVersion(row.specialtyVersion());
+                    specialty.setName(row.specialtyName());
+                    specialties.add(specialty);
+                }
+                vet.addSpecialty(specialty);
+            }
+        }
+        return vets;
+    }
+
+}
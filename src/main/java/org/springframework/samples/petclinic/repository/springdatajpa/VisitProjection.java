@@ -0,0 +1,49 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import java.time.LocalDate;
+
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.Visit;
+
+/**
+ * One visit row: exactly the columns of a <code>VisitDto</code>, read without managed entities.
+ *
+ * @see SpringDataVisitRepository
+ */
+public record VisitProjection(Integer id, LocalDate date, String description, Integer petId) {
+
+    static final String SELECT = "SELECT new org.springframework.samples.petclinic.repository.springdatajpa.VisitProjection("
+        + "visit.id, visit.date, visit.description, visit.pet.id) FROM Visit visit ";
+
+    static final String ORDER_BY = " ORDER BY visit.id";
+
+    /**
+     * Build an unmanaged visit whose pet only carries its id.
+     */
+    Visit toVisit() {
+        Visit visit = new Visit();
+        visit.setId(this.id);
+        visit.setDate(this.date);
+        visit.setDescription(this.description);
+        Pet pet = new Pet();
+        pet.setId(this.petId);
+        visit.setPet(pet);
+        return visit;
+    }
+
+}
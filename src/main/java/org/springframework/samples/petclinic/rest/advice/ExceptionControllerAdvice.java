@@ -17,21 +17,30 @@
 package org.springframework.samples.petclinic.rest.advice;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.ElementKind;
+import jakarta.validation.Path;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.rest.controller.BindingErrorsResponse;
+import org.springframework.samples.petclinic.rest.dto.ValidationMessageDto;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.net.URI;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Global Exception handler for REST controllers.
@@ -92,6 +101,83 @@ public class ExceptionControllerAdvice {
         return ResponseEntity.status(status).body(detail);
     }
 
+    /**
+     * Handles {@link OptimisticLockingFailureException} which indicates that the entity was updated concurrently since
+     * it was read. This method returns a 412 Precondition Failed status, as for an outdated <code>If-Match</code>.
+     *
+     * @param ex The {@link OptimisticLockingFailureException} to be handled
+     * @param request {@link HttpServletRequest} object referring to the current request.
+     * @return A {@link ResponseEntity} containing the error information and a 412 Precondition Failed status
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseBody
+    public ResponseEntity<ProblemDetail> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+        ProblemDetail detail = this.detailBuild(ex, status, request.getRequestURL());
+        return ResponseEntity.status(status).body(detail);
+    }
+
+    /**
+     * Handles {@link ResponseStatusException} thrown by the controllers, such as the 413 Payload Too Large of a bulk
+     * request with too many items, with the status and reason it carries.
+     *
+     * @param ex The {@link ResponseStatusException} to be handled
+     * @param request {@link HttpServletRequest} object referring to the current request.
+     * @return A {@link ResponseEntity} containing the error information and the status of the exception
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    @ResponseBody
+    public ResponseEntity<ProblemDetail> handleResponseStatusException(ResponseStatusException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
+        ProblemDetail detail = this.detailBuild(ex, status, request.getRequestURL());
+        detail.setDetail(ex.getReason());
+        return ResponseEntity.status(status).body(detail);
+    }
+
+    /**
+     * Handles exception thrown by the method validation of controller parameters, which applies to the items of the
+     * list bodies of the bulk endpoints. Each error is reported with the index of the item it is about.
+     *
+     * @param ex The {@link ConstraintViolationException} to be handled
+     * @param request {@link HttpServletRequest} object referring to the current request.
+     * @return A {@link ResponseEntity} containing the error information and a 400 Bad Request status.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseBody
+    public ResponseEntity<ProblemDetail> handleConstraintViolationException(ConstraintViolationException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        ProblemDetail detail = this.detailBuild(ex, status, request.getRequestURL());
+        List<ValidationMessageDto> errors = new ArrayList<>();
+        for (ConstraintViolation<?> violation : ex.getConstraintViolations()) {
+            // e.g. addVisits.bulkVisitFieldsDto[1].petId, whose petId node holds the index of its item
+            StringBuilder path = new StringBuilder();
+            Integer index = null;
+            for (Path.Node node : violation.getPropertyPath()) {
+                if (node.getKind() == ElementKind.METHOD || node.getKind() == ElementKind.PARAMETER) {
+                    continue;
+                }
+                if (node.getIndex() != null) {
+                    index = index == null ? node.getIndex() : index;
+                    path.append('/').append(node.getIndex());
+                }
+                if (node.getKind() != ElementKind.CONTAINER_ELEMENT) {
+                    path.append('/').append(node.getName());
+                }
+            }
+            errors.add(validationMessage(path.toString(), violation.getMessage(), index));
+        }
+        detail.setProperty("schemaValidationErrors", errors);
+        return ResponseEntity.status(status).body(detail);
+    }
+
+    private static ValidationMessageDto validationMessage(String path, String message, Integer index) {
+        ValidationMessageDto validationMessage = new ValidationMessageDto("[Path '" + path + "'] " + message);
+        if (index != null) {
+            validationMessage.putAdditionalProperty("index", index);
+        }
+        return validationMessage;
+    }
+
     /**
      * Handles exception thrown by Bean Validation on controller methods parameters
      *
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.rest.advice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.samples.petclinic.rest.controller.OwnerRestController;
+import org.springframework.samples.petclinic.rest.controller.PetRestController;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Leaves out the <code>null</code> properties of owner and pet list responses that were requested with the
+ * <code>fields</code> or <code>embed</code> parameters, so that properties and associations that were not selected are
+ * absent rather than <code>null</code>. Every other response keeps its <code>null</code> properties.
+ */
+@ControllerAdvice(assignableTypes = {OwnerRestController.class, PetRestController.class})
+public class SparseFieldsetsResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    private final ObjectMapper sparseMapper;
+
+    public SparseFieldsetsResponseBodyAdvice(ObjectMapper objectMapper) {
+        this.sparseMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return MappingJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof Iterable<?> && request instanceof ServletServerHttpRequest servletRequest
+            && (servletRequest.getServletRequest().getParameter("fields") != null
+            || servletRequest.getServletRequest().getParameter("embed") != null)) {
+            return this.sparseMapper.valueToTree(body);
+        }
+        return body;
+    }
+
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.rest.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.samples.petclinic.rest.dto.BulkItemResultDto;
+import org.springframework.samples.petclinic.rest.dto.ValidationMessageDto;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Creates or updates the items of a bulk request, which Bean Validation has already checked as a whole, in chunks of
+ * <code>petclinic.bulk.batch-size</code> items, each saved by one <code>ClinicService</code> call and thus in one
+ * transaction. Before a chunk is saved, the resources its items refer to are looked up, and the items referring to a
+ * missing one are reported as 404 and left out. When a chunk still fails, it has been rolled back and its items are
+ * saved one by one, so that the failing items are reported with their own status while the others are still saved.
+ */
+@Component
+class BulkWrites {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkWrites.class);
+
+    private final int batchSize;
+
+    private final int maxItems;
+
+    BulkWrites(@Value("${petclinic.bulk.batch-size:50}") int batchSize,
+               @Value("${petclinic.bulk.max-items:10000}") int maxItems) {
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * @param references the resources the items refer to
+     * @param toEntity   maps an item to a new entity; it is called again for the items of a failed chunk, as the
+     *                   entities of the rolled back transaction may have been given ids
+     * @param save       saves a chunk of entities in one transaction
+     * @param path       the path template of a created resource, with an <code>{id}</code> variable
+     * @return a 201 response when all items were created, a 207 one otherwise, with the result of each item
+     */
+    <D, E extends BaseEntity> ResponseEntity<List<BulkItemResultDto>> create(List<D> items, References<D> references,
+                                                                            Function<D, E> toEntity,
+                                                                            Consumer<List<E>> save, String path) {
+        return write(items, references, (index, item) -> Prepared.of(toEntity.apply(item)), save,
+            HttpStatus.CREATED, HttpStatus.CREATED, path);
+    }
+
+    /**
+     * Each item is checked against the current entity as a single update with an <code>If-Match</code> header is:
+     * an item whose <code>etag</code> no longer matches the tag of the entity gets a 412, and so does one whose
+     * entity is updated concurrently, which the version check of the save reports.
+     *
+     * @param references the resources the items refer to, including the entities they update
+     * @param find       loads the current entity of an item, or returns <code>null</code> when there is none; it is
+     *                   called again for the items of a failed chunk, as the rolled back transaction may have
+     *                   incremented the versions of their entities
+     * @param ifMatch    the <code>etag</code> of an item, <code>null</code> to update whatever the current version
+     * @param tag        the current ETag of an entity, see {@link EntityTags}
+     * @param apply      copies the fields of an item to its entity
+     * @param save       saves a chunk of entities in one transaction
+     * @param path       the path template of an updated resource, with an <code>{id}</code> variable
+     * @return a 200 response when all items were updated, a 207 one otherwise, with the result of each item
+     */
+    <D, E extends BaseEntity> ResponseEntity<List<BulkItemResultDto>> update(List<D> items, References<D> references,
+                                                                            Function<D, E> find,
+                                                                            Function<D, String> ifMatch,
+                                                                            Function<E, String> tag,
+                                                                            BiConsumer<D, E> apply,
+                                                                            Consumer<List<E>> save, String path) {
+        return write(items, references, (index, item) -> {
+            E current = find.apply(item);
+            if (current == null) {
+                // deleted since the references were looked up
+                return Prepared.rejected(notFound(index, "Not found"));
+            }
+            if (EntityTags.matchFails(ifMatch.apply(item), tag.apply(current))) {
+                return Prepared.rejected(preconditionFailed(index, "The etag does not match the current ETag"));
+            }
+            apply.accept(item, current);
+            return Prepared.of(current);
+        }, save, HttpStatus.NO_CONTENT, HttpStatus.OK, path);
+    }
+
+    /**
+     * @param prepare     gives the entity to save for an item, or the result of an item that is not saved
+     * @param savedStatus the status of a saved item
+     * @param allStatus   the status of the response when all items were saved
+     */
+    private <D, E extends BaseEntity> ResponseEntity<List<BulkItemResultDto>> write(
+        List<D> items, References<D> references, BiFunction<Integer, D, Prepared<E>> prepare, Consumer<List<E>> save,
+        HttpStatus savedStatus, HttpStatus allStatus, String path) {
+        if (items.size() > this.maxItems) {
+            throw tooManyItems(this.maxItems);
+        }
+        List<BulkItemResultDto> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += this.batchSize) {
+            List<D> chunk = items.subList(from, Math.min(from + this.batchSize, items.size()));
+            BulkItemResultDto[] chunkResults = new BulkItemResultDto[chunk.size()];
+            Map<Integer, String> missing = references.missing(chunk);
+            List<Integer> valid = new ArrayList<>(chunk.size());
+            List<E> entities = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                if (missing.containsKey(i)) {
+                    chunkResults[i] = notFound(from + i, missing.get(i));
+                    continue;
+                }
+                Prepared<E> prepared = prepare.apply(from + i, chunk.get(i));
+                if (prepared.rejected() != null) {
+                    chunkResults[i] = prepared.rejected();
+                } else {
+                    valid.add(i);
+                    entities.add(prepared.entity());
+                }
+            }
+            try {
+                if (!entities.isEmpty()) {
+                    save.accept(entities);
+                }
+                for (int k = 0; k < entities.size(); k++) {
+                    chunkResults[valid.get(k)] = saved(from + valid.get(k), savedStatus, entities.get(k), path);
+                }
+            } catch (DataAccessException ex) {
+                for (int i : valid) {
+                    Prepared<E> prepared = prepare.apply(from + i, chunk.get(i));
+                    if (prepared.rejected() != null) {
+                        chunkResults[i] = prepared.rejected();
+                        continue;
+                    }
+                    try {
+                        save.accept(List.of(prepared.entity()));
+                        chunkResults[i] = saved(from + i, savedStatus, prepared.entity(), path);
+                    } catch (OptimisticLockingFailureException itemEx) {
+                        chunkResults[i] = preconditionFailed(from + i, "The resource was updated concurrently");
+                    } catch (DataAccessException itemEx) {
+                        chunkResults[i] = failed(from + i, itemEx);
+                    }
+                }
+            }
+            results.addAll(Arrays.asList(chunkResults));
+        }
+        boolean allSaved = results.stream().allMatch(result -> result.getStatus() == savedStatus.value());
+        return new ResponseEntity<>(results, allSaved ? allStatus : HttpStatus.MULTI_STATUS);
+    }
+
+    /**
+     * The 413 of a request with more than <code>maxItems</code> items. JSON arrays are checked once Jackson has read
+     * them; NDJSON bodies already while they are read, see {@link NdjsonHttpMessageConverter}.
+     */
+    static ResponseStatusException tooManyItems(int maxItems) {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+            "A bulk request holds at most " + maxItems + " items");
+    }
+
+    private static BulkItemResultDto saved(int index, HttpStatus status, BaseEntity entity, String path) {
+        return new BulkItemResultDto(index, status.value())
+            .id(entity.getId())
+            .location(UriComponentsBuilder.newInstance().path(path).buildAndExpand(entity.getId()).toUriString());
+    }
+
+    private static BulkItemResultDto notFound(int index, String message) {
+        return new BulkItemResultDto(index, HttpStatus.NOT_FOUND.value())
+            .addErrorsItem(new ValidationMessageDto(message));
+    }
+
+    private static BulkItemResultDto preconditionFailed(int index, String message) {
+        return new BulkItemResultDto(index, HttpStatus.PRECONDITION_FAILED.value())
+            .addErrorsItem(new ValidationMessageDto(message));
+    }
+
+    /**
+     * An item that could not be saved for another reason: the exception, which may quote SQL and constraint names,
+     * is only logged.
+     */
+    private static BulkItemResultDto failed(int index, DataAccessException ex) {
+        logger.warn("Bulk item {} could not be saved", index, ex);
+        return new BulkItemResultDto(index, HttpStatus.INTERNAL_SERVER_ERROR.value())
+            .addErrorsItem(new ValidationMessageDto("The item could not be saved"));
+    }
+
+    /**
+     * The entity to save for an item, or the result of an item that is not saved.
+     */
+    private record Prepared<E>(E entity, BulkItemResultDto rejected) {
+
+        static <E> Prepared<E> of(E entity) {
+            return new Prepared<>(entity, null);
+        }
+
+        static <E> Prepared<E> rejected(BulkItemResultDto result) {
+            return new Prepared<>(null, result);
+        }
+
+    }
+
+    /**
+     * The resources the items of a chunk refer to, looked up with one query per kind of resource.
+     */
+    @FunctionalInterface
+    interface References<D> {
+
+        /**
+         * @return the message of each item that refers to a missing resource, by its position in the chunk
+         */
+        Map<Integer, String> missing(List<D> chunk);
+
+        static <D> References<D> none() {
+            return chunk -> Map.of();
+        }
+
+        /**
+         * @param resource    the name of the referenced resource, for the messages
+         * @param id          the id of the resource an item refers to
+         * @param existingIds those of the given ids that belong to an existing resource
+         */
+        static <D> References<D> to(String resource, Function<D, Integer> id,
+                                    Function<Collection<Integer>, Collection<Integer>> existingIds) {
+            return chunk -> {
+                List<Integer> ids = chunk.stream().map(id).toList();
+                Set<Integer> existing = new HashSet<>(existingIds.apply(ids.stream().distinct().toList()));
+                Map<Integer, String> missing = new HashMap<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    if (!existing.contains(ids.get(i))) {
+                        missing.put(i, resource + " " + ids.get(i) + " not found");
+                    }
+                }
+                return missing;
+            };
+        }
+
+        default References<D> and(References<D> other) {
+            return chunk -> {
+                Map<Integer, String> missing = new HashMap<>(other.missing(chunk));
+                missing.putAll(missing(chunk));
+                return missing;
+            };
+        }
+
+    }
+
+}
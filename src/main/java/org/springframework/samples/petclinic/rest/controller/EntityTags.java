@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.rest.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.http.ETag;
+import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Computes the strong ETags of the REST resources from the id and version of every entity a representation is made
+ * of, and evaluates the <code>If-None-Match</code> and <code>If-Match</code> conditions against them.
+ * <p>
+ * Each update of an entity increments its version, so the tag changes whenever the representation may have changed,
+ * and it is computed without mapping, serializing or, for entities served from the service cache, loading anything.
+ * The pets, visits and specialties of an entity are taken in id order, since the order they are shown in can tie.
+ */
+final class EntityTags {
+
+    private final StringBuilder versions = new StringBuilder();
+
+    private EntityTags() {
+    }
+
+    /**
+     * @return the tag of an owner together with its pets, their types and their visits
+     */
+    static String of(Owner owner) {
+        EntityTags tags = new EntityTags().add('o', owner);
+        for (Pet pet : byId(owner.getPets())) {
+            tags.addPet(pet);
+        }
+        return tags.toString();
+    }
+
+    /**
+     * @return the tag of a pet together with its type and its visits
+     */
+    static String of(Pet pet) {
+        return new EntityTags().addPet(pet).toString();
+    }
+
+    static String of(Visit visit) {
+        return new EntityTags().add('v', visit).toString();
+    }
+
+    /**
+     * @return the tag of a vet together with its specialties
+     */
+    static String of(Vet vet) {
+        return new EntityTags().addVet(vet).toString();
+    }
+
+    static String of(PetType petType) {
+        return new EntityTags().add('t', petType).toString();
+    }
+
+    /**
+     * @param nextCursor the cursor of the next page, which is part of the response too
+     * @return the tag of a page of vets together with their specialties
+     */
+    static String ofVets(Collection<Vet> vets, Integer nextCursor) {
+        EntityTags tags = new EntityTags();
+        for (Vet vet : vets) {
+            tags.addVet(vet);
+        }
+        tags.versions.append('n').append(nextCursor);
+        return tags.toString();
+    }
+
+    static String ofPetTypes(Collection<PetType> petTypes) {
+        EntityTags tags = new EntityTags();
+        for (PetType petType : petTypes) {
+            tags.add('t', petType);
+        }
+        return tags.toString();
+    }
+
+    /**
+     * Evaluates an <code>If-None-Match</code> header with the weak comparison of RFC 9110.
+     *
+     * @return whether the header is present and lists the current tag, or is a wildcard
+     */
+    static boolean noneMatchFails(String ifNoneMatch, String currentTag) {
+        return ifNoneMatch != null && matches(ifNoneMatch, currentTag, false);
+    }
+
+    /**
+     * Evaluates an <code>If-Match</code> header with the strong comparison of RFC 9110.
+     *
+     * @return whether the header is present and lists neither the current tag nor a wildcard
+     */
+    static boolean matchFails(String ifMatch, String currentTag) {
+        return ifMatch != null && !matches(ifMatch, currentTag, true);
+    }
+
+    private static boolean matches(String header, String currentTag, boolean strong) {
+        ETag current = ETag.create(currentTag);
+        for (ETag tag : ETag.parse(header)) {
+            if (tag.isWildcard() || tag.compare(current, strong)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private EntityTags addPet(Pet pet) {
+        add('p', pet).add('t', pet.getType());
+        for (Visit visit : byId(pet.getVisits())) {
+            add('v', visit);
+        }
+        return this;
+    }
+
+    private EntityTags addVet(Vet vet) {
+        add('e', vet);
+        for (Specialty specialty : byId(vet.getSpecialties())) {
+            add('s', specialty);
+        }
+        return this;
+    }
+
+    private static <T extends BaseEntity> List<T> byId(Collection<T> entities) {
+        return entities.stream().sorted(Comparator.comparing(BaseEntity::getId)).toList();
+    }
+
+    private EntityTags add(char kind, BaseEntity entity) {
+        this.versions.append(kind).append(entity.getId()).append(':').append(entity.getVersion()).append(';');
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "\"" + DigestUtils.md5DigestAsHex(this.versions.toString().getBytes(StandardCharsets.US_ASCII)) + "\"";
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.rest.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Writes a JSON array to the response body element by element, with a {@link JsonGenerator} of the application's
+ * {@link ObjectMapper}, while a source is still producing the elements. Neither the entities nor their DTOs are
+ * collected, so memory use does not depend on the number of elements.
+ */
+@Component
+class JsonArrayStreaming {
+
+    private final ObjectMapper objectMapper;
+
+    JsonArrayStreaming(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param source hands every element to the consumer it is given, e.g. a <code>ClinicService</code> stream method
+     * @param toDto  maps an element to the object written to the array
+     */
+    <T> ResponseEntity<StreamingResponseBody> stream(Consumer<Consumer<T>> source, Function<? super T, ?> toDto) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                source.accept(element -> {
+                    try {
+                        generator.writeObject(toDto.apply(element));
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+}
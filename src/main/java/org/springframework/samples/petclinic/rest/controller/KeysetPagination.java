@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.samples.petclinic.util.KeysetPage;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Resolves the <code>cursor</code> and <code>limit</code> query parameters of the list endpoints and builds the
+ * <code>Link</code> and <code>X-Next-Cursor</code> headers pointing to the next {@link KeysetPage}.
+ */
+@Component
+class KeysetPagination {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final int defaultPageSize;
+
+    private final int maxPageSize;
+
+    KeysetPagination(@Value("${petclinic.pagination.default-page-size:20}") int defaultPageSize,
+                     @Value("${petclinic.pagination.max-page-size:100}") int maxPageSize) {
+        this.defaultPageSize = Math.min(defaultPageSize, maxPageSize);
+        this.maxPageSize = maxPageSize;
+    }
+
+    int cursor(Integer cursor) {
+        return cursor == null ? 0 : cursor;
+    }
+
+    /**
+     * @return the requested page size, defaulted when absent and capped at the configured maximum
+     */
+    int pageSize(Integer limit) {
+        return limit == null ? this.defaultPageSize : Math.min(limit, this.maxPageSize);
+    }
+
+    /**
+     * @return the next-page headers of the given page, empty on the last page
+     */
+    HttpHeaders headers(KeysetPage<?> page, int pageSize) {
+        Integer nextCursor = page.getNextCursor();
+        return headers(nextCursor == null ? null : nextCursor.toString(), pageSize);
+    }
+
+    /**
+     * @param nextCursor the cursor of the next page, or <code>null</code> on the last page
+     * @return the next-page headers, empty on the last page
+     */
+    HttpHeaders headers(String nextCursor, int pageSize) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", nextCursor)
+                .replaceQueryParam("limit", pageSize)
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return headers;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.rest.controller;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads <code>application/x-ndjson</code> request bodies, one JSON value per line, into a collection of the element
+ * type of the target parameter, with the application's {@link ObjectMapper}. The lines are read one after the other
+ * from the stream, so a client can produce a bulk request without building a JSON array, and reading stops with a 413
+ * once the body holds more than <code>petclinic.bulk.max-items</code> items.
+ * <p>
+ * Spring Boot adds this converter to the ones of Spring MVC since it is a bean. It only reads: it never claims it can
+ * write, so Spring MVC does not call its write methods.
+ */
+@Component
+class NdjsonHttpMessageConverter implements GenericHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+
+    private final int maxItems;
+
+    NdjsonHttpMessageConverter(ObjectMapper objectMapper, @Value("${petclinic.bulk.max-items:10000}") int maxItems) {
+        this.objectMapper = objectMapper;
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return List.of(MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return canRead(clazz, null, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return mediaType != null && MediaType.APPLICATION_NDJSON.includes(mediaType)
+            && Collection.class.isAssignableFrom(javaType(type, contextClass).getRawClass());
+    }
+
+    @Override
+    public Object read(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        JavaType collectionType = javaType(type, contextClass);
+        Collection<Object> items = CollectionFactory.createCollection(collectionType.getRawClass(), 16);
+        try (MappingIterator<Object> lines = this.objectMapper.readerFor(collectionType.getContentType())
+            .readValues(inputMessage.getBody())) {
+            while (lines.hasNextValue()) {
+                if (items.size() == this.maxItems) {
+                    throw BulkWrites.tooManyItems(this.maxItems);
+                }
+                items.add(lines.nextValue());
+            }
+            return items;
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotReadableException("NDJSON parse error: " + ex.getOriginalMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public void write(Object object, @Nullable MediaType contentType, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("NDJSON responses are not supported");
+    }
+
+    @Override
+    public void write(Object object, @Nullable Type type, @Nullable MediaType contentType, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("NDJSON responses are not supported");
+    }
+
+    private JavaType javaType(Type type, @Nullable Class<?> contextClass) {
+        return this.objectMapper.getTypeFactory().constructType(GenericTypeResolver.resolveType(type, contextClass));
+    }
+
+}
@@ -28,15 +28,20 @@ import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.rest.api.OwnersApi;
 import org.springframework.samples.petclinic.rest.dto.*;
 import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.util.KeysetPage;
+import org.springframework.samples.petclinic.util.OwnerSearch;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.transaction.Transactional;
 
-import java.util.Collection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 /**
@@ -44,7 +49,7 @@ import java.util.List;
  */
 
 @RestController
-@CrossOrigin(exposedHeaders = "errors, content-type")
+@CrossOrigin(exposedHeaders = "errors, content-type, link, x-next-cursor, etag")
 @RequestMapping("/api")
 public class OwnerRestController implements OwnersApi {
 
@@ -56,39 +61,82 @@ public class OwnerRestController implements OwnersApi {
 
     private final VisitMapper visitMapper;
 
+    private final KeysetPagination pagination;
+
+    private final BulkWrites bulkWrites;
+
     public OwnerRestController(ClinicService clinicService,
                                OwnerMapper ownerMapper,
                                PetMapper petMapper,
-                               VisitMapper visitMapper) {
+                               VisitMapper visitMapper,
+                               KeysetPagination pagination,
+                               BulkWrites bulkWrites) {
         this.clinicService = clinicService;
         this.ownerMapper = ownerMapper;
         this.petMapper = petMapper;
         this.visitMapper = visitMapper;
+        this.pagination = pagination;
+        this.bulkWrites = bulkWrites;
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
-    public ResponseEntity<List<OwnerDto>> listOwners(String lastName) {
-        Collection<Owner> owners;
+    public ResponseEntity<List<OwnerDto>> listOwners(String lastName, Integer cursor, Integer limit,
+                                                     List<String> fields, List<String> embed) {
+        int pageSize = this.pagination.pageSize(limit);
+        SparseFieldsets fieldsets = SparseFieldsets.ofOwners(fields, embed);
+        KeysetPage<Owner> owners;
         if (lastName != null) {
-            owners = this.clinicService.findOwnerByLastName(lastName);
+            owners = this.clinicService.findOwnerPageByLastName(lastName, this.pagination.cursor(cursor), pageSize,
+                fieldsets.embeds());
         } else {
-            owners = this.clinicService.findAllOwners();
+            owners = this.clinicService.findOwnerPage(this.pagination.cursor(cursor), pageSize, fieldsets.embeds());
+        }
+        if (owners.getContent().isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        if (owners.isEmpty()) {
+        List<OwnerDto> ownerDtos = new ArrayList<>(owners.getContent().size());
+        for (Owner owner : owners.getContent()) {
+            ownerDtos.add(fieldsets.select(ownerMapper.toOwnerDto(owner, fieldsets.embeds())));
+        }
+        return new ResponseEntity<>(ownerDtos, this.pagination.headers(owners, pageSize), HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<List<OwnerDto>> searchOwners(String lastName, String city, String telephone, String petName,
+                                                       String petType, String sort, String cursor, Integer limit,
+                                                       List<String> fields, List<String> embed) {
+        int pageSize = this.pagination.pageSize(limit);
+        SparseFieldsets fieldsets = SparseFieldsets.ofOwners(fields, embed);
+        OwnerSearch search = parseSearch(lastName, city, telephone, petName, petType, sort);
+        KeysetPage<Owner> owners = this.clinicService.searchOwners(search, decodeCursor(search, cursor), pageSize,
+            fieldsets.embeds());
+        List<Owner> content = owners.getContent();
+        if (content.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(ownerMapper.toOwnerDtoCollection(owners), HttpStatus.OK);
+        List<OwnerDto> ownerDtos = new ArrayList<>(content.size());
+        for (Owner owner : content) {
+            ownerDtos.add(fieldsets.select(ownerMapper.toOwnerDto(owner, fieldsets.embeds())));
+        }
+        String nextCursor = owners.hasNext() ? encodeCursor(search.after(content.get(content.size() - 1))) : null;
+        return new ResponseEntity<>(ownerDtos, this.pagination.headers(nextCursor, pageSize), HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
-    public ResponseEntity<OwnerDto> getOwner(Integer ownerId) {
+    public ResponseEntity<OwnerDto> getOwner(Integer ownerId, String ifNoneMatch) {
         Owner owner = this.clinicService.findOwnerById(ownerId);
         if (owner == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(ownerMapper.toOwnerDto(owner), HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(EntityTags.of(owner));
+        if (EntityTags.noneMatchFails(ifNoneMatch, headers.getETag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(ownerMapper.toOwnerDto(owner), headers, HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
@@ -105,11 +153,35 @@ public class OwnerRestController implements OwnersApi {
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
-    public ResponseEntity<OwnerDto> updateOwner(Integer ownerId, OwnerFieldsDto ownerFieldsDto) {
+    public ResponseEntity<List<BulkItemResultDto>> addOwners(List<OwnerFieldsDto> ownerFieldsDtos) {
+        return this.bulkWrites.create(ownerFieldsDtos, BulkWrites.References.none(), ownerMapper::toOwner,
+            this.clinicService::saveOwners, "/api/owners/{id}");
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<List<BulkItemResultDto>> updateOwners(List<BulkOwnerUpdateDto> bulkOwnerUpdateDtos) {
+        return this.bulkWrites.update(bulkOwnerUpdateDtos, BulkWrites.References.none(),
+            ownerFields -> this.clinicService.findOwnerById(ownerFields.getId()), BulkOwnerUpdateDto::getEtag,
+            EntityTags::of, (ownerFields, owner) -> {
+                owner.setAddress(ownerFields.getAddress());
+                owner.setCity(ownerFields.getCity());
+                owner.setFirstName(ownerFields.getFirstName());
+                owner.setLastName(ownerFields.getLastName());
+                owner.setTelephone(ownerFields.getTelephone());
+            }, this.clinicService::saveOwners, "/api/owners/{id}");
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<OwnerDto> updateOwner(Integer ownerId, OwnerFieldsDto ownerFieldsDto, String ifMatch) {
         Owner currentOwner = this.clinicService.findOwnerById(ownerId);
         if (currentOwner == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        if (EntityTags.matchFails(ifMatch, EntityTags.of(currentOwner))) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        }
         currentOwner.setAddress(ownerFieldsDto.getAddress());
         currentOwner.setCity(ownerFieldsDto.getCity());
         currentOwner.setFirstName(ownerFieldsDto.getFirstName());
@@ -192,4 +264,46 @@ public class OwnerRestController implements OwnersApi {
         }
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
+
+    private static OwnerSearch parseSearch(String lastName, String city, String telephone, String petName,
+                                           String petType, String sort) {
+        boolean descending = sort != null && sort.startsWith("-");
+        String property = sort == null ? "id" : sort.substring(descending ? 1 : 0);
+        OwnerSearch.SortKey sortKey = switch (property) {
+            case "id" -> OwnerSearch.SortKey.ID;
+            case "lastName" -> OwnerSearch.SortKey.LAST_NAME;
+            case "city" -> OwnerSearch.SortKey.CITY;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort: " + sort);
+        };
+        return new OwnerSearch(lastName, city, telephone, petName, petType, sortKey, descending);
+    }
+
+    /**
+     * The cursor is the URL-safe Base64 of the id of the last owner of the page, followed by its sort value when
+     * the search is not ordered by id, so that clients do not build it themselves.
+     */
+    private static String encodeCursor(OwnerSearch.After after) {
+        String position = after.value() == null ? String.valueOf(after.id()) : after.id() + ":" + after.value();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static OwnerSearch.After decodeCursor(OwnerSearch search, String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(':');
+            boolean byId = search.sortKey() == OwnerSearch.SortKey.ID;
+            if (byId != (separator < 0)) {
+                throw new IllegalArgumentException("Cursor of another sort");
+            }
+            return byId
+                ? new OwnerSearch.After(null, Integer.parseInt(position))
+                : new OwnerSearch.After(position.substring(separator + 1), Integer.parseInt(position.substring(0, separator)));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+
 }
@@ -16,19 +16,29 @@
 
 package org.springframework.samples.petclinic.rest.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.mapper.PetMapper;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.rest.api.PetsApi;
+import org.springframework.samples.petclinic.rest.dto.BulkItemResultDto;
+import org.springframework.samples.petclinic.rest.dto.BulkPetFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.BulkPetUpdateDto;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
 import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.util.KeysetPage;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -36,7 +46,7 @@ import java.util.List;
  */
 
 @RestController
-@CrossOrigin(exposedHeaders = "errors, content-type")
+@CrossOrigin(exposedHeaders = "errors, content-type, link, x-next-cursor, etag")
 @RequestMapping("api")
 public class PetRestController implements PetsApi {
 
@@ -44,29 +54,81 @@ public class PetRestController implements PetsApi {
 
     private final PetMapper petMapper;
 
-    public PetRestController(ClinicService clinicService, PetMapper petMapper) {
+    private final KeysetPagination pagination;
+
+    private final JsonArrayStreaming jsonArrayStreaming;
+
+    private final BulkWrites bulkWrites;
+
+    public PetRestController(ClinicService clinicService, PetMapper petMapper, KeysetPagination pagination,
+                             JsonArrayStreaming jsonArrayStreaming, BulkWrites bulkWrites) {
         this.clinicService = clinicService;
         this.petMapper = petMapper;
+        this.pagination = pagination;
+        this.jsonArrayStreaming = jsonArrayStreaming;
+        this.bulkWrites = bulkWrites;
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
     public ResponseEntity<PetDto> getPet(Integer petId) {
-        PetDto pet = petMapper.toPetDto(this.clinicService.findPetById(petId));
+        Pet pet = this.clinicService.findPetById(petId);
         if (pet == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(pet, HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(EntityTags.of(pet));
+        return new ResponseEntity<>(petMapper.toPetDto(pet), headers, HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
-    public ResponseEntity<List<PetDto>> listPets() {
-        List<PetDto> pets = new ArrayList<>(petMapper.toPetsDto(this.clinicService.findAllPets()));
-        if (pets.isEmpty()) {
+    public ResponseEntity<List<PetDto>> listPets(Integer cursor, Integer limit, List<String> fields, List<String> embed) {
+        int pageSize = this.pagination.pageSize(limit);
+        SparseFieldsets fieldsets = SparseFieldsets.ofPets(fields, embed);
+        KeysetPage<Pet> page = this.clinicService.findPetPage(this.pagination.cursor(cursor), pageSize, fieldsets.embeds());
+        if (page.getContent().isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(pets, HttpStatus.OK);
+        List<PetDto> pets = new ArrayList<>(page.getContent().size());
+        for (Pet pet : page.getContent()) {
+            pets.add(fieldsets.select(petMapper.toPetDto(pet, fieldsets.embeds())));
+        }
+        return new ResponseEntity<>(pets, this.pagination.headers(page, pageSize), HttpStatus.OK);
+    }
+
+    /**
+     * Full-table export: every pet is written to the response with its visits as soon as it is read, see
+     * {@link JsonArrayStreaming}.
+     */
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @GetMapping(value = "/pets/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPets() {
+        return this.jsonArrayStreaming.stream(this.clinicService::streamAllPets, petMapper::toPetDto);
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<List<BulkItemResultDto>> addPets(List<BulkPetFieldsDto> bulkPetFieldsDtos) {
+        BulkWrites.References<BulkPetFieldsDto> references = BulkWrites.References
+            .<BulkPetFieldsDto>to("Owner", BulkPetFieldsDto::getOwnerId, this.clinicService::findExistingOwnerIds)
+            .and(BulkWrites.References.to("Pet type", pet -> pet.getType().getId(), this::findExistingPetTypeIds));
+        return this.bulkWrites.create(bulkPetFieldsDtos, references, petMapper::toPet, this.clinicService::savePets,
+            "/api/pets/{id}");
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<List<BulkItemResultDto>> updatePets(List<BulkPetUpdateDto> bulkPetUpdateDtos) {
+        return this.bulkWrites.update(bulkPetUpdateDtos,
+            BulkWrites.References.to("Pet type", petFields -> petFields.getType().getId(),
+                this::findExistingPetTypeIds),
+            petFields -> this.clinicService.findPetById(petFields.getId()), BulkPetUpdateDto::getEtag,
+            EntityTags::of, (petFields, pet) -> {
+                pet.setBirthDate(petFields.getBirthDate());
+                pet.setName(petFields.getName());
+                pet.setType(petMapper.toPetType(petFields.getType()));
+            }, this.clinicService::savePets, "/api/pets/{id}");
     }
 
 
@@ -95,4 +157,11 @@ public class PetRestController implements PetsApi {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * The pet types come from the service cache, so the ids of a chunk are checked without a query.
+     */
+    private Collection<Integer> findExistingPetTypeIds(Collection<Integer> ids) {
+        return this.clinicService.findAllPetTypes().stream().map(PetType::getId).toList();
+    }
+
 }
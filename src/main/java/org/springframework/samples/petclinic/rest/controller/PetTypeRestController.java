@@ -35,7 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @RestController
-@CrossOrigin(exposedHeaders = "errors, content-type")
+@CrossOrigin(exposedHeaders = "errors, content-type, etag")
 @RequestMapping("api")
 public class PetTypeRestController implements PettypesApi {
 
@@ -50,22 +50,32 @@ public class PetTypeRestController implements PettypesApi {
 
     @PreAuthorize("hasAnyRole(@roles.OWNER_ADMIN, @roles.VET_ADMIN)")
     @Override
-    public ResponseEntity<List<PetTypeDto>> listPetTypes() {
+    public ResponseEntity<List<PetTypeDto>> listPetTypes(String ifNoneMatch) {
         List<PetType> petTypes = new ArrayList<>(this.clinicService.findAllPetTypes());
         if (petTypes.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(petTypeMapper.toPetTypeDtos(petTypes), HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(EntityTags.ofPetTypes(petTypes));
+        if (EntityTags.noneMatchFails(ifNoneMatch, headers.getETag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(petTypeMapper.toPetTypeDtos(petTypes), headers, HttpStatus.OK);
     }
 
     @PreAuthorize("hasAnyRole(@roles.OWNER_ADMIN, @roles.VET_ADMIN)")
     @Override
-    public ResponseEntity<PetTypeDto> getPetType(Integer petTypeId) {
+    public ResponseEntity<PetTypeDto> getPetType(Integer petTypeId, String ifNoneMatch) {
         PetType petType = this.clinicService.findPetTypeById(petTypeId);
         if (petType == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(petTypeMapper.toPetTypeDto(petType), HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(EntityTags.of(petType));
+        if (EntityTags.noneMatchFails(ifNoneMatch, headers.getETag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(petTypeMapper.toPetTypeDto(petType), headers, HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
@@ -80,11 +90,14 @@ public class PetTypeRestController implements PettypesApi {
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
     @Override
-    public ResponseEntity<PetTypeDto> updatePetType(Integer petTypeId, PetTypeDto petTypeDto) {
+    public ResponseEntity<PetTypeDto> updatePetType(Integer petTypeId, PetTypeDto petTypeDto, String ifMatch) {
         PetType currentPetType = this.clinicService.findPetTypeById(petTypeId);
         if (currentPetType == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        if (EntityTags.matchFails(ifMatch, EntityTags.of(currentPetType))) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        }
         currentPetType.setName(petTypeDto.getName());
         this.clinicService.savePetType(currentPetType);
         return new ResponseEntity<>(petTypeMapper.toPetTypeDto(currentPetType), HttpStatus.NO_CONTENT);
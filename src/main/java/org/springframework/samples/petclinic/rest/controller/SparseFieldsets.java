@@ -0,0 +1,155 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.rest.controller;
+
+import java.beans.PropertyDescriptor;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.rest.dto.OwnerDto;
+import org.springframework.samples.petclinic.rest.dto.PetDto;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * The <code>fields</code> and <code>embed</code> query parameters of a list request: which associations the
+ * repositories load, and which properties of the mapped DTOs are returned.
+ * <p>
+ * An association is only loaded when it is embedded and, if fields are given, listed among them, so that a request
+ * for a few owner columns never reads pets or visits. Properties that are not returned are set to <code>null</code>
+ * and left out by the {@link org.springframework.samples.petclinic.rest.advice.SparseFieldsetsResponseBodyAdvice}.
+ */
+final class SparseFieldsets {
+
+    private static final String ID = "id";
+
+    private final Set<String> fields;
+
+    private final Set<Embed> embeds;
+
+    private SparseFieldsets(Set<String> fields, Set<Embed> embeds) {
+        this.fields = fields;
+        this.embeds = embeds;
+    }
+
+    /**
+     * @param fields the requested owner properties, or <code>null</code> for all
+     * @param embed  the requested associations, or <code>null</code> for pets and their visits
+     */
+    static SparseFieldsets ofOwners(List<String> fields, List<String> embed) {
+        Set<String> properties = parseFields(OwnerDto.class, fields);
+        Set<Embed> embeds = parseEmbeds(embed, EnumSet.of(Embed.PETS, Embed.VISITS));
+        if (properties != null && !properties.contains("pets")) {
+            embeds.remove(Embed.PETS);
+        }
+        // the visits are those of the pets
+        if (!embeds.contains(Embed.PETS)) {
+            embeds.remove(Embed.VISITS);
+        }
+        return new SparseFieldsets(properties, embeds);
+    }
+
+    /**
+     * @param fields the requested pet properties, or <code>null</code> for all
+     * @param embed  the requested associations, or <code>null</code> for the visits
+     */
+    static SparseFieldsets ofPets(List<String> fields, List<String> embed) {
+        Set<String> properties = parseFields(PetDto.class, fields);
+        Set<Embed> embeds = parseEmbeds(embed, EnumSet.of(Embed.VISITS));
+        if (properties != null && !properties.contains("visits")) {
+            embeds.remove(Embed.VISITS);
+        }
+        return new SparseFieldsets(properties, embeds);
+    }
+
+    /**
+     * @return the associations to load
+     */
+    Set<Embed> embeds() {
+        return this.embeds;
+    }
+
+    /**
+     * Clear the properties of a DTO that were not requested; the id is always kept.
+     *
+     * @return the given DTO
+     */
+    <T> T select(T dto) {
+        if (this.fields == null) {
+            return dto;
+        }
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(dto);
+        for (PropertyDescriptor property : wrapper.getPropertyDescriptors()) {
+            String name = property.getName();
+            if (property.getWriteMethod() != null && !ID.equals(name) && !this.fields.contains(name)) {
+                wrapper.setPropertyValue(name, null);
+            }
+        }
+        return dto;
+    }
+
+    private static Set<String> parseFields(Class<?> dtoType, List<String> fields) {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> properties = new LinkedHashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            PropertyDescriptor property = BeanUtils.getPropertyDescriptor(dtoType, name);
+            if (property == null || property.getWriteMethod() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + name);
+            }
+            properties.add(name);
+        }
+        return properties;
+    }
+
+    private static Set<Embed> parseEmbeds(List<String> embed, Set<Embed> supported) {
+        if (embed == null) {
+            return supported;
+        }
+        Set<Embed> embeds = EnumSet.noneOf(Embed.class);
+        for (String association : embed) {
+            String name = association.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            Embed value = null;
+            for (Embed candidate : supported) {
+                if (candidate.name().equals(name.toUpperCase(Locale.ROOT))) {
+                    value = candidate;
+                }
+            }
+            if (value == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown embed: " + name);
+            }
+            embeds.add(value);
+        }
+        return embeds;
+    }
+
+}
@@ -25,6 +25,7 @@ import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.rest.api.VetsApi;
 import org.springframework.samples.petclinic.rest.dto.VetDto;
 import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.util.KeysetPage;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -39,38 +40,52 @@ import java.util.stream.Collectors;
  */
 
 @RestController
-@CrossOrigin(exposedHeaders = "errors, content-type")
+@CrossOrigin(exposedHeaders = "errors, content-type, link, x-next-cursor, etag")
 @RequestMapping("api")
 public class VetRestController implements VetsApi {
 
     private final ClinicService clinicService;
     private final VetMapper vetMapper;
     private final SpecialtyMapper specialtyMapper;
+    private final KeysetPagination pagination;
 
-    public VetRestController(ClinicService clinicService, VetMapper vetMapper, SpecialtyMapper specialtyMapper) {
+    public VetRestController(ClinicService clinicService, VetMapper vetMapper, SpecialtyMapper specialtyMapper,
+                             KeysetPagination pagination) {
         this.clinicService = clinicService;
         this.vetMapper = vetMapper;
         this.specialtyMapper = specialtyMapper;
+        this.pagination = pagination;
     }
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
     @Override
-    public ResponseEntity<List<VetDto>> listVets() {
-        List<VetDto> vets = new ArrayList<>(vetMapper.toVetDtos(this.clinicService.findAllVets()));
-        if (vets.isEmpty()) {
+    public ResponseEntity<List<VetDto>> listVets(Integer cursor, Integer limit, String ifNoneMatch) {
+        int pageSize = this.pagination.pageSize(limit);
+        KeysetPage<Vet> page = this.clinicService.findVetPage(this.pagination.cursor(cursor), pageSize);
+        if (page.getContent().isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(vets, HttpStatus.OK);
+        HttpHeaders headers = this.pagination.headers(page, pageSize);
+        headers.setETag(EntityTags.ofVets(page.getContent(), page.getNextCursor()));
+        if (EntityTags.noneMatchFails(ifNoneMatch, headers.getETag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(new ArrayList<>(vetMapper.toVetDtos(page.getContent())), headers, HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
     @Override
-    public ResponseEntity<VetDto> getVet(Integer vetId)  {
+    public ResponseEntity<VetDto> getVet(Integer vetId, String ifNoneMatch)  {
         Vet vet = this.clinicService.findVetById(vetId);
         if (vet == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(vetMapper.toVetDto(vet), HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(EntityTags.of(vet));
+        if (EntityTags.noneMatchFails(ifNoneMatch, headers.getETag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(vetMapper.toVetDto(vet), headers, HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
@@ -89,11 +104,14 @@ public class VetRestController implements VetsApi {
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
     @Override
-    public ResponseEntity<VetDto> updateVet(Integer vetId,VetDto vetDto)  {
+    public ResponseEntity<VetDto> updateVet(Integer vetId,VetDto vetDto, String ifMatch)  {
         Vet currentVet = this.clinicService.findVetById(vetId);
         if (currentVet == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        if (EntityTags.matchFails(ifMatch, EntityTags.of(currentVet))) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        }
         currentVet.setFirstName(vetDto.getFirstName());
         currentVet.setLastName(vetDto.getLastName());
         currentVet.clearSpecialties();
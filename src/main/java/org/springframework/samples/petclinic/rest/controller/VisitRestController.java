@@ -18,18 +18,23 @@ package org.springframework.samples.petclinic.rest.controller;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.mapper.VisitMapper;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.rest.api.VisitsApi;
+import org.springframework.samples.petclinic.rest.dto.BulkItemResultDto;
+import org.springframework.samples.petclinic.rest.dto.BulkVisitFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.BulkVisitUpdateDto;
 import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.util.KeysetPage;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.transaction.Transactional;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -37,7 +42,7 @@ import java.util.List;
  */
 
 @RestController
-@CrossOrigin(exposedHeaders = "errors, content-type")
+@CrossOrigin(exposedHeaders = "errors, content-type, link, x-next-cursor, etag")
 @RequestMapping("api")
 public class VisitRestController implements VisitsApi {
 
@@ -45,20 +50,41 @@ public class VisitRestController implements VisitsApi {
 
     private final VisitMapper visitMapper;
 
-    public VisitRestController(ClinicService clinicService, VisitMapper visitMapper) {
+    private final KeysetPagination pagination;
+
+    private final JsonArrayStreaming jsonArrayStreaming;
+
+    private final BulkWrites bulkWrites;
+
+    public VisitRestController(ClinicService clinicService, VisitMapper visitMapper, KeysetPagination pagination,
+                               JsonArrayStreaming jsonArrayStreaming, BulkWrites bulkWrites) {
         this.clinicService = clinicService;
         this.visitMapper = visitMapper;
+        this.pagination = pagination;
+        this.jsonArrayStreaming = jsonArrayStreaming;
+        this.bulkWrites = bulkWrites;
     }
 
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
-    public ResponseEntity<List<VisitDto>> listVisits() {
-        List<Visit> visits = new ArrayList<>(this.clinicService.findAllVisits());
-        if (visits.isEmpty()) {
+    public ResponseEntity<List<VisitDto>> listVisits(Integer cursor, Integer limit) {
+        int pageSize = this.pagination.pageSize(limit);
+        KeysetPage<Visit> visits = this.clinicService.findVisitPage(this.pagination.cursor(cursor), pageSize);
+        if (visits.getContent().isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(new ArrayList<>(visitMapper.toVisitsDto(visits)), HttpStatus.OK);
+        return new ResponseEntity<>(visitMapper.toVisitsDto(visits.getContent()),
+            this.pagination.headers(visits, pageSize), HttpStatus.OK);
+    }
+
+    /**
+     * Full-table export: every visit is written to the response as it is read, see {@link JsonArrayStreaming}.
+     */
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @GetMapping(value = "/visits/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportVisits() {
+        return this.jsonArrayStreaming.stream(this.clinicService::streamAllVisits, visitMapper::toVisitDto);
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
@@ -68,7 +94,9 @@ public class VisitRestController implements VisitsApi {
         if (visit == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(visitMapper.toVisitDto(visit), HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(EntityTags.of(visit));
+        return new ResponseEntity<>(visitMapper.toVisitDto(visit), headers, HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
@@ -82,6 +110,25 @@ public class VisitRestController implements VisitsApi {
         return new ResponseEntity<>(visitDto, headers, HttpStatus.CREATED);
     }
 
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<List<BulkItemResultDto>> addVisits(List<BulkVisitFieldsDto> bulkVisitFieldsDtos) {
+        return this.bulkWrites.create(bulkVisitFieldsDtos,
+            BulkWrites.References.to("Pet", BulkVisitFieldsDto::getPetId, this.clinicService::findExistingPetIds),
+            visitMapper::toVisit, this.clinicService::saveVisits, "/api/visits/{id}");
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<List<BulkItemResultDto>> updateVisits(List<BulkVisitUpdateDto> bulkVisitUpdateDtos) {
+        return this.bulkWrites.update(bulkVisitUpdateDtos, BulkWrites.References.none(),
+            visitFields -> this.clinicService.findVisitById(visitFields.getId()), BulkVisitUpdateDto::getEtag,
+            EntityTags::of, (visitFields, visit) -> {
+                visit.setDate(visitFields.getDate());
+                visit.setDescription(visitFields.getDescription());
+            }, this.clinicService::saveVisits, "/api/visits/{id}");
+    }
+
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
     public ResponseEntity<VisitDto> updateVisit(Integer visitId, VisitDto visitDto) {
@@ -18,6 +18,7 @@ package org.springframework.samples.petclinic.service;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Owner;
@@ -26,6 +27,9 @@ import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Specialty;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.samples.petclinic.util.KeysetPage;
+import org.springframework.samples.petclinic.util.OwnerSearch;
 
 /**
  * Mostly used as a facade so all controllers have a single point of entry
@@ -36,25 +40,38 @@ import org.springframework.samples.petclinic.model.Visit;
 public interface ClinicService {
 
 	Pet findPetById(int id) throws DataAccessException;
+	Collection<Integer> findExistingPetIds(Collection<Integer> ids) throws DataAccessException;
 	Collection<Pet> findAllPets() throws DataAccessException;
+	KeysetPage<Pet> findPetPage(int afterId, int pageSize, Set<Embed> embeds) throws DataAccessException;
+	void streamAllPets(Consumer<? super Pet> action) throws DataAccessException;
 	void savePet(Pet pet) throws DataAccessException;
+	void savePets(Collection<Pet> pets) throws DataAccessException;
 	void deletePet(Pet pet) throws DataAccessException;
 
 	Collection<Visit> findVisitsByPetId(int petId);
 	Visit findVisitById(int visitId) throws DataAccessException;
 	Collection<Visit> findAllVisits() throws DataAccessException;
+	KeysetPage<Visit> findVisitPage(int afterId, int pageSize) throws DataAccessException;
+	void streamAllVisits(Consumer<? super Visit> action) throws DataAccessException;
 	void saveVisit(Visit visit) throws DataAccessException;
+	void saveVisits(Collection<Visit> visits) throws DataAccessException;
 	void deleteVisit(Visit visit) throws DataAccessException;
 	Vet findVetById(int id) throws DataAccessException;
 	Collection<Vet> findVets() throws DataAccessException;
 	Collection<Vet> findAllVets() throws DataAccessException;
+	KeysetPage<Vet> findVetPage(int afterId, int pageSize) throws DataAccessException;
 	void saveVet(Vet vet) throws DataAccessException;
 	void deleteVet(Vet vet) throws DataAccessException;
 	Owner findOwnerById(int id) throws DataAccessException;
+	Collection<Integer> findExistingOwnerIds(Collection<Integer> ids) throws DataAccessException;
 	Collection<Owner> findAllOwners() throws DataAccessException;
+	KeysetPage<Owner> findOwnerPage(int afterId, int pageSize, Set<Embed> embeds) throws DataAccessException;
 	void saveOwner(Owner owner) throws DataAccessException;
+	void saveOwners(Collection<Owner> owners) throws DataAccessException;
 	void deleteOwner(Owner owner) throws DataAccessException;
 	Collection<Owner> findOwnerByLastName(String lastName) throws DataAccessException;
+	KeysetPage<Owner> findOwnerPageByLastName(String lastName, int afterId, int pageSize, Set<Embed> embeds) throws DataAccessException;
+	KeysetPage<Owner> searchOwners(OwnerSearch search, OwnerSearch.After after, int pageSize, Set<Embed> embeds) throws DataAccessException;
 
 	PetType findPetTypeById(int petTypeId);
 	Collection<PetType> findAllPetTypes() throws DataAccessException;
@@ -16,22 +16,42 @@
 package org.springframework.samples.petclinic.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.config.CacheConfig;
 import org.springframework.samples.petclinic.model.*;
 import org.springframework.samples.petclinic.repository.*;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.samples.petclinic.util.KeysetPage;
+import org.springframework.samples.petclinic.util.OwnerSearch;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import static org.springframework.samples.petclinic.config.CacheConfig.ALL_PET_TYPES;
+import static org.springframework.samples.petclinic.config.CacheConfig.ALL_SPECIALTIES;
+import static org.springframework.samples.petclinic.config.CacheConfig.ALL_VETS;
+import static org.springframework.samples.petclinic.config.CacheConfig.OWNERS;
+import static org.springframework.samples.petclinic.config.CacheConfig.PET_TYPES;
+import static org.springframework.samples.petclinic.config.CacheConfig.VETS;
+
 /**
  * Mostly used as a facade for all Petclinic controllers
- * Also a placeholder for @Transactional and @Cacheable annotations
+ * Also the place of the @Transactional and @Cacheable annotations: vets, pet types, specialties and owners are cached
+ * in the caches of {@link CacheConfig}, and every save or delete evicts the entries it makes stale
  *
  * @author Michael Isvy
  * @author Vitaliy Fedoriv
@@ -45,6 +65,7 @@ public class ClinicServiceImpl implements ClinicService {
     private final VisitRepository visitRepository;
     private final SpecialtyRepository specialtyRepository;
     private final PetTypeRepository petTypeRepository;
+    private final CacheManager cacheManager;
 
     @Autowired
     public ClinicServiceImpl(
@@ -53,13 +74,15 @@ public class ClinicServiceImpl implements ClinicService {
         OwnerRepository ownerRepository,
         VisitRepository visitRepository,
         SpecialtyRepository specialtyRepository,
-        PetTypeRepository petTypeRepository) {
+        PetTypeRepository petTypeRepository,
+        CacheManager cacheManager) {
         this.petRepository = petRepository;
         this.vetRepository = vetRepository;
         this.ownerRepository = ownerRepository;
         this.visitRepository = visitRepository;
         this.specialtyRepository = specialtyRepository;
         this.petTypeRepository = petTypeRepository;
+        this.cacheManager = cacheManager;
     }
 
     @Override
@@ -68,8 +91,24 @@ public class ClinicServiceImpl implements ClinicService {
         return petRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Pet> findPetPage(int afterId, int pageSize, Set<Embed> embeds) throws DataAccessException {
+        return KeysetPage.of(petRepository.findAfter(afterId, pageSize + 1, embeds), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllPets(Consumer<? super Pet> action) throws DataAccessException {
+        petRepository.streamAll(action);
+    }
+
     @Override
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = OWNERS, key = "#pet.owner.id", condition = "#pet.owner != null"),
+        @CacheEvict(cacheNames = OWNERS, allEntries = true, condition = "#pet.owner == null")
+    })
     public void deletePet(Pet pet) throws DataAccessException {
         petRepository.delete(pet);
     }
@@ -86,32 +125,64 @@ public class ClinicServiceImpl implements ClinicService {
         return visitRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Visit> findVisitPage(int afterId, int pageSize) throws DataAccessException {
+        return KeysetPage.of(visitRepository.findAfter(afterId, pageSize + 1), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllVisits(Consumer<? super Visit> action) throws DataAccessException {
+        visitRepository.streamAll(action);
+    }
+
     @Override
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = OWNERS, key = "#visit.pet.owner.id", condition = "#visit.pet?.owner != null"),
+        @CacheEvict(cacheNames = OWNERS, allEntries = true, condition = "#visit.pet?.owner == null")
+    })
     public void deleteVisit(Visit visit) throws DataAccessException {
         visitRepository.delete(visit);
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(VETS)
     public Vet findVetById(int id) throws DataAccessException {
         return findEntityById(() -> vetRepository.findById(id));
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(ALL_VETS)
     public Collection<Vet> findAllVets() throws DataAccessException {
         return vetRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Vet> findVetPage(int afterId, int pageSize) throws DataAccessException {
+        return KeysetPage.of(vetRepository.findAfter(afterId, pageSize + 1), pageSize);
+    }
+
     @Override
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = VETS, key = "#vet.id"),
+        @CacheEvict(cacheNames = ALL_VETS, allEntries = true)
+    })
     public void saveVet(Vet vet) throws DataAccessException {
         vetRepository.save(vet);
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = VETS, key = "#vet.id"),
+        @CacheEvict(cacheNames = ALL_VETS, allEntries = true)
+    })
     public void deleteVet(Vet vet) throws DataAccessException {
         vetRepository.delete(vet);
     }
@@ -122,32 +193,49 @@ public class ClinicServiceImpl implements ClinicService {
         return ownerRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Owner> findOwnerPage(int afterId, int pageSize, Set<Embed> embeds) throws DataAccessException {
+        return KeysetPage.of(ownerRepository.findAfter(afterId, pageSize + 1, embeds), pageSize);
+    }
+
     @Override
     @Transactional
+    @CacheEvict(cacheNames = OWNERS, key = "#owner.id")
     public void deleteOwner(Owner owner) throws DataAccessException {
         ownerRepository.delete(owner);
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(PET_TYPES)
     public PetType findPetTypeById(int petTypeId) {
         return findEntityById(() -> petTypeRepository.findById(petTypeId));
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(ALL_PET_TYPES)
     public Collection<PetType> findAllPetTypes() throws DataAccessException {
         return petTypeRepository.findAll();
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = PET_TYPES, key = "#petType.id"),
+        @CacheEvict(cacheNames = {ALL_PET_TYPES, OWNERS}, allEntries = true)
+    })
     public void savePetType(PetType petType) throws DataAccessException {
         petTypeRepository.save(petType);
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = PET_TYPES, key = "#petType.id"),
+        @CacheEvict(cacheNames = {ALL_PET_TYPES, OWNERS}, allEntries = true)
+    })
     public void deletePetType(PetType petType) throws DataAccessException {
         petTypeRepository.delete(petType);
     }
@@ -160,18 +248,21 @@ public class ClinicServiceImpl implements ClinicService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(ALL_SPECIALTIES)
     public Collection<Specialty> findAllSpecialties() throws DataAccessException {
         return specialtyRepository.findAll();
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {ALL_SPECIALTIES, VETS, ALL_VETS}, allEntries = true)
     public void saveSpecialty(Specialty specialty) throws DataAccessException {
         specialtyRepository.save(specialty);
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {ALL_SPECIALTIES, VETS, ALL_VETS}, allEntries = true)
     public void deleteSpecialty(Specialty specialty) throws DataAccessException {
         specialtyRepository.delete(specialty);
     }
@@ -184,18 +275,35 @@ public class ClinicServiceImpl implements ClinicService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(OWNERS)
     public Owner findOwnerById(int id) throws DataAccessException {
         return findEntityById(() -> ownerRepository.findById(id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Integer> findExistingOwnerIds(Collection<Integer> ids) throws DataAccessException {
+        return ids.isEmpty() ? List.of() : ownerRepository.findIds(ids);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Pet findPetById(int id) throws DataAccessException {
         return findEntityById(() -> petRepository.findById(id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Integer> findExistingPetIds(Collection<Integer> ids) throws DataAccessException {
+        return ids.isEmpty() ? List.of() : petRepository.findIds(ids);
+    }
+
     @Override
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = OWNERS, key = "#pet.owner.id", condition = "#pet.owner != null"),
+        @CacheEvict(cacheNames = OWNERS, allEntries = true, condition = "#pet.owner == null")
+    })
     public void savePet(Pet pet) throws DataAccessException {
         pet.setType(findPetTypeById(pet.getType().getId()));
         petRepository.save(pet);
@@ -203,11 +311,38 @@ public class ClinicServiceImpl implements ClinicService {
 
     @Override
     @Transactional
+    public void savePets(Collection<Pet> pets) throws DataAccessException {
+        Map<Integer, PetType> petTypes = new HashMap<>();
+        for (Pet pet : pets) {
+            pet.setType(petTypes.computeIfAbsent(pet.getType().getId(), this::findPetTypeById));
+        }
+        petRepository.saveAll(pets);
+        if (pets.stream().anyMatch(pet -> pet.getOwner() == null)) {
+            this.cacheManager.getCache(OWNERS).clear();
+        } else {
+            evictOwners(pets.stream().map(pet -> pet.getOwner().getId()).toList());
+        }
+    }
+
+    @Override
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = OWNERS, key = "#visit.pet.owner.id", condition = "#visit.pet?.owner != null"),
+        @CacheEvict(cacheNames = OWNERS, allEntries = true, condition = "#visit.pet?.owner == null")
+    })
     public void saveVisit(Visit visit) throws DataAccessException {
         visitRepository.save(visit);
 
     }
 
+    @Override
+    @Transactional
+    public void saveVisits(Collection<Visit> visits) throws DataAccessException {
+        visitRepository.saveAll(visits);
+        // the visits only refer to their pets by id
+        evictOwners(petRepository.findOwnerIds(visits.stream().map(visit -> visit.getPet().getId()).distinct().toList()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Collection<Vet> findVets() throws DataAccessException {
@@ -216,17 +351,37 @@ public class ClinicServiceImpl implements ClinicService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = OWNERS, key = "#owner.id")
     public void saveOwner(Owner owner) throws DataAccessException {
         ownerRepository.save(owner);
 
     }
 
+    @Override
+    @Transactional
+    public void saveOwners(Collection<Owner> owners) throws DataAccessException {
+        ownerRepository.saveAll(owners);
+        evictOwners(owners.stream().map(Owner::getId).toList());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Collection<Owner> findOwnerByLastName(String lastName) throws DataAccessException {
         return ownerRepository.findByLastName(lastName);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Owner> findOwnerPageByLastName(String lastName, int afterId, int pageSize, Set<Embed> embeds) throws DataAccessException {
+        return KeysetPage.of(ownerRepository.findByLastNameAfter(lastName, afterId, pageSize + 1, embeds), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Owner> searchOwners(OwnerSearch search, OwnerSearch.After after, int pageSize, Set<Embed> embeds) throws DataAccessException {
+        return KeysetPage.of(ownerRepository.search(search, after, pageSize + 1, embeds), pageSize);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Collection<Visit> findVisitsByPetId(int petId) {
@@ -248,4 +403,13 @@ public class ClinicServiceImpl implements ClinicService {
         }
     }
 
+    /**
+     * Evicts the owners a bulk save made stale, one key per owner, as the annotations of the single saves do. Called
+     * within the transaction, where the cache manager evicts at once and again after the commit.
+     */
+    private void evictOwners(Collection<Integer> ownerIds) {
+        Cache owners = this.cacheManager.getCache(OWNERS);
+        ownerIds.forEach(owners::evict);
+    }
+
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.util;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Associations a list query loads along with its entities. Whatever is not requested is neither read from the data
+ * store nor initialized, so callers must not touch it.
+ * <p>
+ * Owners embed their {@link #PETS}, and the pets of an owner only embed their {@link #VISITS} if the pets themselves
+ * are embedded. Pets always come with their type and owner and may embed their {@link #VISITS}.
+ */
+public enum Embed {
+
+    PETS,
+
+    VISITS;
+
+    /**
+     * Every association, which is what the REST representations hold by default.
+     */
+    public static final Set<Embed> ALL = Collections.unmodifiableSet(EnumSet.allOf(Embed.class));
+
+}
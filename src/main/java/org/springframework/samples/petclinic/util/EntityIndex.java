@@ -0,0 +1,136 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.util;
+
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.BaseEntity;
+
+/**
+ * Index of entities keyed by their primitive <code>int</code> id, backed by an open-addressing hash table so that
+ * lookups need neither a linear scan nor boxing of the id. Meant to be built once per query to join rows in linear
+ * time; it is not thread-safe.
+ *
+ * @param <T> the entity type
+ * @see EntityUtils#indexById(java.util.Collection, Class)
+ */
+public class EntityIndex<T extends BaseEntity> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Class<T> entityClass;
+
+    private int[] ids;
+
+    private Object[] entities;
+
+    private int size;
+
+    /**
+     * Create an empty index.
+     *
+     * @param entityClass the indexed entity class, reported when a lookup fails
+     */
+    public EntityIndex(Class<T> entityClass) {
+        this(entityClass, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty index sized to hold the given number of entities without rehashing.
+     *
+     * @param entityClass      the indexed entity class, reported when a lookup fails
+     * @param expectedEntities the expected number of entities
+     */
+    public EntityIndex(Class<T> entityClass, int expectedEntities) {
+        this.entityClass = entityClass;
+        int capacity = Integer.highestOneBit(Math.max(expectedEntities, DEFAULT_CAPACITY / 2) * 2 - 1) << 1;
+        this.ids = new int[capacity];
+        this.entities = new Object[capacity];
+    }
+
+    /**
+     * Add the given entity, replacing any entity already indexed under the same id.
+     *
+     * @param entity the entity to add; its id must not be <code>null</code>
+     */
+    public void add(T entity) {
+        int id = entity.getId();
+        int slot = slotOf(id);
+        if (this.entities[slot] == null) {
+            this.ids[slot] = id;
+            this.size++;
+        }
+        this.entities[slot] = entity;
+        if (this.size * 2 > this.entities.length) {
+            resize();
+        }
+    }
+
+    /**
+     * Look up the entity with the given id.
+     *
+     * @param entityId the entity id to look up
+     * @return the found entity, or <code>null</code> if none is indexed under that id
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int entityId) {
+        return (T) this.entities[slotOf(entityId)];
+    }
+
+    /**
+     * Look up the entity with the given id.
+     *
+     * @param entityId the entity id to look up
+     * @return the found entity
+     * @throws ObjectRetrievalFailureException if the entity was not found
+     */
+    public T getById(int entityId) throws ObjectRetrievalFailureException {
+        T entity = get(entityId);
+        if (entity == null) {
+            throw new ObjectRetrievalFailureException(this.entityClass, entityId);
+        }
+        return entity;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private int slotOf(int id) {
+        int mask = this.entities.length - 1;
+        int hash = id * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (this.entities[slot] != null && this.ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        int[] oldIds = this.ids;
+        Object[] oldEntities = this.entities;
+        this.ids = new int[oldIds.length * 2];
+        this.entities = new Object[oldEntities.length * 2];
+        for (int i = 0; i < oldEntities.length; i++) {
+            if (oldEntities[i] != null) {
+                int slot = slotOf(oldIds[i]);
+                this.ids[slot] = oldIds[i];
+                this.entities[slot] = oldEntities[i];
+            }
+        }
+    }
+
+}
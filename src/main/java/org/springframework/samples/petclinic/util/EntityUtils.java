@@ -51,4 +51,22 @@ public abstract class EntityUtils {
         throw new ObjectRetrievalFailureException(entityClass, entityId);
     }
 
+    /**
+     * Build an id index over the given collection, to be used instead of repeated {@link #getById} calls when joining
+     * many rows against the same collection.
+     *
+     * @param entities    the collection to index
+     * @param entityClass the entity class to index; entities of other classes are skipped
+     * @return the index of the given entities
+     */
+    public static <T extends BaseEntity> EntityIndex<T> indexById(Collection<? extends T> entities, Class<T> entityClass) {
+        EntityIndex<T> index = new EntityIndex<>(entityClass, entities.size());
+        for (T entity : entities) {
+            if (entityClass.isInstance(entity)) {
+                index.add(entity);
+            }
+        }
+        return index;
+    }
+
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.util;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.samples.petclinic.model.BaseEntity;
+
+/**
+ * One page of a keyset (seek) pagination over entities ordered by id. The cursor of the next page is the id of the
+ * last entity on this page; the next page holds the entities whose id is greater than it.
+ *
+ * @param <T> the entity type
+ */
+public class KeysetPage<T extends BaseEntity> {
+
+    private final List<T> content;
+
+    private final boolean hasNext;
+
+    private KeysetPage(List<T> content, boolean hasNext) {
+        this.content = Collections.unmodifiableList(content);
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * Build a page from entities fetched in id order with a limit of <code>pageSize + 1</code>: the extra entity, if
+     * present, only signals that a next page exists and is dropped.
+     *
+     * @param entities the fetched entities, at most <code>pageSize + 1</code>
+     * @param pageSize the requested page size
+     * @return the page
+     */
+    public static <T extends BaseEntity> KeysetPage<T> of(List<T> entities, int pageSize) {
+        if (entities.size() > pageSize) {
+            return new KeysetPage<>(entities.subList(0, pageSize), true);
+        }
+        return new KeysetPage<>(entities, false);
+    }
+
+    public List<T> getContent() {
+        return this.content;
+    }
+
+    public boolean hasNext() {
+        return this.hasNext;
+    }
+
+    /**
+     * @return the cursor of the next page, or <code>null</code> if this is the last page
+     */
+    public Integer getNextCursor() {
+        return this.hasNext ? this.content.get(this.content.size() - 1).getId() : null;
+    }
+
+}
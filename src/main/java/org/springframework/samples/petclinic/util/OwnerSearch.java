@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.util;
+
+import java.util.function.Function;
+
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * Filters and order of an owner search. Every filter is optional and the given ones are combined: the last name is
+ * a prefix, the city and telephone must match exactly, and the pet name (a prefix) and the pet type name (exact)
+ * must both match the same pet of the owner.
+ * <p>
+ * Results are ordered by the sort key, then by id, so that a page can be continued from the {@link After position}
+ * of its last owner whatever the sort key.
+ *
+ * @param sortKey    the property to order by
+ * @param descending whether to order by that property, and then by id, in descending order
+ */
+public record OwnerSearch(String lastName, String city, String telephone, String petName, String petType,
+                          SortKey sortKey, boolean descending) {
+
+    public OwnerSearch {
+        if (sortKey == null) {
+            sortKey = SortKey.ID;
+        }
+    }
+
+    /**
+     * @return the position of the given owner in this search's order
+     */
+    public After after(Owner owner) {
+        return new After(this.sortKey.valueOf(owner), owner.getId());
+    }
+
+    /**
+     * Properties a search can be ordered by; all of them are backed by an index together with the id.
+     */
+    public enum SortKey {
+
+        ID(owner -> null),
+
+        LAST_NAME(Owner::getLastName),
+
+        CITY(Owner::getCity);
+
+        private final Function<Owner, String> value;
+
+        SortKey(Function<Owner, String> value) {
+            this.value = value;
+        }
+
+        /**
+         * @return the sort value of the given owner, <code>null</code> when sorting by id alone
+         */
+        public String valueOf(Owner owner) {
+            return this.value.apply(owner);
+        }
+
+    }
+
+    /**
+     * Position in the order of a search: the following page holds the owners after it.
+     *
+     * @param value the sort value of the last owner of the previous page, <code>null</code> when sorting by id
+     * @param id    the id of that owner
+     */
+    public record After(String value, int id) {
+    }
+
+}
@@ -1,14 +1,26 @@
+-- ids are drawn from pooled sequences (increment 50) so that JPA can batch inserts;
+-- the column defaults use the same sequences, so plain JDBC inserts never collide with them
+CREATE SEQUENCE IF NOT EXISTS vets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS specialties_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS types_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS owners_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS pets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS visits_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS roles_seq START WITH 100 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS vets (
-  id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+  id INTEGER DEFAULT NEXT VALUE FOR vets_seq PRIMARY KEY,
   first_name VARCHAR(30) NOT NULL,
-  last_name VARCHAR(30) NOT NULL
+  last_name VARCHAR(30) NOT NULL,
+  version INTEGER DEFAULT 0 NOT NULL
 );
 
 CREATE INDEX idx_vets_last_name ON vets(last_name);
 
 CREATE TABLE IF NOT EXISTS specialties (
-  id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
-  name VARCHAR(80) NOT NULL
+  id INTEGER DEFAULT NEXT VALUE FOR specialties_seq PRIMARY KEY,
+  name VARCHAR(80) NOT NULL,
+  version INTEGER DEFAULT 0 NOT NULL
 );
 
 CREATE INDEX idx_specialties_name ON specialties(name);
@@ -22,40 +34,49 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 );
 
 CREATE TABLE IF NOT EXISTS types (
-  id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
-  name VARCHAR(80) NOT NULL
+  id INTEGER DEFAULT NEXT VALUE FOR types_seq PRIMARY KEY,
+  name VARCHAR(80) NOT NULL,
+  version INTEGER DEFAULT 0 NOT NULL
 );
 
 CREATE INDEX idx_types_name ON types(name);
 
 CREATE TABLE IF NOT EXISTS owners (
-  id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+  id INTEGER DEFAULT NEXT VALUE FOR owners_seq PRIMARY KEY,
   first_name VARCHAR(30) NOT NULL,
   last_name VARCHAR(30) NOT NULL,
+  last_name_lower VARCHAR(30) NOT NULL,
   address VARCHAR(255) NOT NULL,
   city VARCHAR(80) NOT NULL,
-  telephone VARCHAR(20) NOT NULL
+  telephone VARCHAR(20) NOT NULL,
+  version INTEGER DEFAULT 0 NOT NULL
 );
 
-CREATE INDEX idx_owners_last_name ON owners(last_name);
+CREATE INDEX idx_owners_last_name ON owners(last_name, id);
+CREATE INDEX idx_owners_last_name_lower ON owners(last_name_lower);
+CREATE INDEX idx_owners_city ON owners(city, id);
+CREATE INDEX idx_owners_telephone ON owners(telephone);
 
 CREATE TABLE IF NOT EXISTS pets (
-  id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+  id INTEGER DEFAULT NEXT VALUE FOR pets_seq PRIMARY KEY,
   name VARCHAR(30) NOT NULL,
   birth_date DATE NOT NULL,
   type_id INTEGER NOT NULL,
   owner_id INTEGER NOT NULL,
+  version INTEGER DEFAULT 0 NOT NULL,
   FOREIGN KEY (owner_id) REFERENCES owners(id) ON DELETE CASCADE,
   FOREIGN KEY (type_id) REFERENCES types(id) ON DELETE CASCADE
 );
 
-CREATE INDEX idx_pets_name ON pets(name);
+CREATE INDEX idx_pets_name ON pets(name, owner_id);
+CREATE INDEX idx_pets_type_id ON pets(type_id, owner_id);
 
 CREATE TABLE IF NOT EXISTS visits (
-  id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+  id INTEGER DEFAULT NEXT VALUE FOR visits_seq PRIMARY KEY,
   pet_id INTEGER NOT NULL,
   visit_date DATE NOT NULL,
   description VARCHAR(255) NOT NULL,
+  version INTEGER DEFAULT 0 NOT NULL,
   FOREIGN KEY (pet_id) REFERENCES pets(id) ON DELETE CASCADE
 );
 
@@ -66,9 +87,10 @@ CREATE TABLE IF NOT EXISTS users (
 );
 
 CREATE TABLE IF NOT EXISTS roles (
-  id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+  id INTEGER DEFAULT NEXT VALUE FOR roles_seq PRIMARY KEY,
   username VARCHAR(20) NOT NULL,
   role VARCHAR(20) NOT NULL,
+  version INTEGER DEFAULT 0 NOT NULL,
   UNIQUE (role, username),
   FOREIGN KEY (username) REFERENCES users(username) ON DELETE CASCADE
 );
\ No newline at end of file
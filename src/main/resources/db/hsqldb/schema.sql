@@ -7,18 +7,37 @@ DROP TABLE types IF EXISTS;
 DROP TABLE owners IF EXISTS;
 DROP TABLE roles IF EXISTS;
 DROP TABLE users IF EXISTS;
+DROP SEQUENCE vets_seq IF EXISTS;
+DROP SEQUENCE specialties_seq IF EXISTS;
+DROP SEQUENCE types_seq IF EXISTS;
+DROP SEQUENCE owners_seq IF EXISTS;
+DROP SEQUENCE pets_seq IF EXISTS;
+DROP SEQUENCE visits_seq IF EXISTS;
+DROP SEQUENCE roles_seq IF EXISTS;
+
+-- ids are drawn from pooled sequences (increment 50) so that JPA can batch inserts;
+-- the column defaults use the same sequences, so plain JDBC inserts never collide with them
+CREATE SEQUENCE vets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE specialties_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE types_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE owners_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE pets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE visits_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE roles_seq START WITH 100 INCREMENT BY 50;
 
 
 CREATE TABLE vets (
-  id         INTEGER IDENTITY PRIMARY KEY,
+  id         INTEGER GENERATED BY DEFAULT AS SEQUENCE vets_seq PRIMARY KEY,
   first_name VARCHAR(30),
-  last_name  VARCHAR(30)
+  last_name  VARCHAR(30),
+  version    INTEGER DEFAULT 0 NOT NULL
 );
 CREATE INDEX vets_last_name ON vets (last_name);
 
 CREATE TABLE specialties (
-  id   INTEGER IDENTITY PRIMARY KEY,
-  name VARCHAR(80)
+  id   INTEGER GENERATED BY DEFAULT AS SEQUENCE specialties_seq PRIMARY KEY,
+  name VARCHAR(80),
+  version INTEGER DEFAULT 0 NOT NULL
 );
 CREATE INDEX specialties_name ON specialties (name);
 
@@ -30,37 +49,46 @@ ALTER TABLE vet_specialties ADD CONSTRAINT fk_vet_specialties_vets FOREIGN KEY (
 ALTER TABLE vet_specialties ADD CONSTRAINT fk_vet_specialties_specialties FOREIGN KEY (specialty_id) REFERENCES specialties (id);
 
 CREATE TABLE types (
-  id   INTEGER IDENTITY PRIMARY KEY,
-  name VARCHAR(80)
+  id   INTEGER GENERATED BY DEFAULT AS SEQUENCE types_seq PRIMARY KEY,
+  name VARCHAR(80),
+  version INTEGER DEFAULT 0 NOT NULL
 );
 CREATE INDEX types_name ON types (name);
 
 CREATE TABLE owners (
-  id         INTEGER IDENTITY PRIMARY KEY,
+  id         INTEGER GENERATED BY DEFAULT AS SEQUENCE owners_seq PRIMARY KEY,
   first_name VARCHAR(30),
   last_name  VARCHAR_IGNORECASE(30),
+  last_name_lower VARCHAR(30) NOT NULL,
   address    VARCHAR(255),
   city       VARCHAR(80),
-  telephone  VARCHAR(20)
+  telephone  VARCHAR(20),
+  version    INTEGER DEFAULT 0 NOT NULL
 );
-CREATE INDEX owners_last_name ON owners (last_name);
+CREATE INDEX owners_last_name ON owners (last_name, id);
+CREATE INDEX owners_last_name_lower ON owners (last_name_lower);
+CREATE INDEX owners_city ON owners (city, id);
+CREATE INDEX owners_telephone ON owners (telephone);
 
 CREATE TABLE pets (
-  id         INTEGER IDENTITY PRIMARY KEY,
+  id         INTEGER GENERATED BY DEFAULT AS SEQUENCE pets_seq PRIMARY KEY,
   name       VARCHAR(30),
   birth_date DATE,
   type_id    INTEGER NOT NULL,
-  owner_id   INTEGER NOT NULL
+  owner_id   INTEGER NOT NULL,
+  version    INTEGER DEFAULT 0 NOT NULL
 );
 ALTER TABLE pets ADD CONSTRAINT fk_pets_owners FOREIGN KEY (owner_id) REFERENCES owners (id);
 ALTER TABLE pets ADD CONSTRAINT fk_pets_types FOREIGN KEY (type_id) REFERENCES types (id);
-CREATE INDEX pets_name ON pets (name);
+CREATE INDEX pets_name ON pets (name, owner_id);
+CREATE INDEX pets_type_id ON pets (type_id, owner_id);
 
 CREATE TABLE visits (
-  id          INTEGER IDENTITY PRIMARY KEY,
+  id          INTEGER GENERATED BY DEFAULT AS SEQUENCE visits_seq PRIMARY KEY,
   pet_id      INTEGER NOT NULL,
   visit_date  DATE,
-  description VARCHAR(255)
+  description VARCHAR(255),
+  version     INTEGER DEFAULT 0 NOT NULL
 );
 ALTER TABLE visits ADD CONSTRAINT fk_visits_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
 CREATE INDEX visits_pet_id ON visits (pet_id);
@@ -73,9 +101,10 @@ CREATE  TABLE users (
 );
 
 CREATE TABLE roles (
-  id              INTEGER IDENTITY PRIMARY KEY,
+  id              INTEGER GENERATED BY DEFAULT AS SEQUENCE roles_seq PRIMARY KEY,
   username        VARCHAR(20) NOT NULL,
-  role            VARCHAR(20) NOT NULL
+  role            VARCHAR(20) NOT NULL,
+  version         INTEGER DEFAULT 0 NOT NULL
 );
 ALTER TABLE roles ADD CONSTRAINT fk_username FOREIGN KEY (username) REFERENCES users (username);
 CREATE INDEX fk_username_idx ON roles (username);
@@ -1,13 +1,36 @@
+-- MySQL has no sequences: JPA allocates ids in blocks of 50 from these single-row tables so that it can batch
+-- inserts. They start above the sample data and are independent of AUTO_INCREMENT, which the jdbc profile uses,
+-- so do not switch the repository layer of a database that already holds generated rows.
+-- A database created before these tables existed needs upgrade_pooled_sequences.sql once.
+-- A database created before the version columns existed needs upgrade_versions.sql once.
+-- A database created before owners.last_name_lower existed needs upgrade_last_name_lower.sql once.
+CREATE TABLE IF NOT EXISTS vets_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+INSERT INTO vets_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM vets_seq);
+CREATE TABLE IF NOT EXISTS specialties_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+INSERT INTO specialties_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM specialties_seq);
+CREATE TABLE IF NOT EXISTS types_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+INSERT INTO types_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM types_seq);
+CREATE TABLE IF NOT EXISTS owners_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+INSERT INTO owners_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM owners_seq);
+CREATE TABLE IF NOT EXISTS pets_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+INSERT INTO pets_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM pets_seq);
+CREATE TABLE IF NOT EXISTS visits_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+INSERT INTO visits_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM visits_seq);
+CREATE TABLE IF NOT EXISTS roles_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+INSERT INTO roles_seq (next_val) SELECT 100 FROM DUAL WHERE NOT EXISTS (SELECT * FROM roles_seq);
+
 CREATE TABLE IF NOT EXISTS vets (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   first_name VARCHAR(30),
   last_name VARCHAR(30),
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
   INDEX(last_name)
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS specialties (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   name VARCHAR(80),
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
   INDEX(name)
 ) engine=InnoDB;
 
@@ -22,6 +45,7 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 CREATE TABLE IF NOT EXISTS types (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   name VARCHAR(80),
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
   INDEX(name)
 ) engine=InnoDB;
 
@@ -29,10 +53,15 @@ CREATE TABLE IF NOT EXISTS owners (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   first_name VARCHAR(30),
   last_name VARCHAR(30),
+  last_name_lower VARCHAR(30) NOT NULL,
   address VARCHAR(255),
   city VARCHAR(80),
   telephone VARCHAR(20),
-  INDEX(last_name)
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
+  INDEX(last_name, id),
+  INDEX(last_name_lower),
+  INDEX(city, id),
+  INDEX(telephone)
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS pets (
@@ -41,7 +70,9 @@ CREATE TABLE IF NOT EXISTS pets (
   birth_date DATE,
   type_id INT(4) UNSIGNED NOT NULL,
   owner_id INT(4) UNSIGNED NOT NULL,
-  INDEX(name),
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
+  INDEX(name, owner_id),
+  INDEX(type_id, owner_id),
   FOREIGN KEY (owner_id) REFERENCES owners(id),
   FOREIGN KEY (type_id) REFERENCES types(id)
 ) engine=InnoDB;
@@ -51,6 +82,7 @@ CREATE TABLE IF NOT EXISTS visits (
   pet_id INT(4) UNSIGNED NOT NULL,
   visit_date DATE,
   description VARCHAR(255),
+  version INT(4) UNSIGNED NOT NULL DEFAULT 0,
   FOREIGN KEY (pet_id) REFERENCES pets(id)
 ) engine=InnoDB;
 
@@ -65,6 +97,7 @@ CREATE TABLE IF NOT EXISTS roles (
   id int(11) NOT NULL AUTO_INCREMENT,
   username varchar(20) NOT NULL,
   role varchar(20) NOT NULL,
+  version int(11) NOT NULL DEFAULT 0,
   PRIMARY KEY (id),
   UNIQUE KEY uni_username_role (role,username),
   KEY fk_username_idx (username),
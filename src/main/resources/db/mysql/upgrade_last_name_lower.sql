@@ -0,0 +1,7 @@
+-- Run once, before starting the application, on a database created before owners had the normalized last name that
+-- the case-insensitive searches match: schema.sql only creates missing tables, and data.sql inserts the column.
+-- Run upgrade_versions.sql first if the tables have no version columns yet.
+ALTER TABLE owners ADD COLUMN last_name_lower VARCHAR(30) AFTER last_name;
+UPDATE owners SET last_name_lower = LOWER(last_name);
+ALTER TABLE owners MODIFY last_name_lower VARCHAR(30) NOT NULL;
+CREATE INDEX last_name_lower ON owners (last_name_lower);
@@ -0,0 +1,25 @@
+-- Run once on a database created before the ids were drawn from pooled sequences: schema.sql creates the missing
+-- <table>_seq tables starting at 100, which may be below the ids already in use. Creates them here as well, in case
+-- the application has not started on this database yet, and moves each one past the highest id of its table.
+CREATE TABLE IF NOT EXISTS vets_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS specialties_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS types_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS owners_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS pets_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS visits_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS roles_seq (next_val BIGINT NOT NULL) engine=InnoDB;
+
+DELETE FROM vets_seq;
+INSERT INTO vets_seq (next_val) SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM vets;
+DELETE FROM specialties_seq;
+INSERT INTO specialties_seq (next_val) SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM specialties;
+DELETE FROM types_seq;
+INSERT INTO types_seq (next_val) SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM types;
+DELETE FROM owners_seq;
+INSERT INTO owners_seq (next_val) SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM owners;
+DELETE FROM pets_seq;
+INSERT INTO pets_seq (next_val) SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM pets;
+DELETE FROM visits_seq;
+INSERT INTO visits_seq (next_val) SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM visits;
+DELETE FROM roles_seq;
+INSERT INTO roles_seq (next_val) SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM roles;
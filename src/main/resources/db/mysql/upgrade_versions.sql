@@ -0,0 +1,9 @@
+-- Run once on a database created before the entities carried a version: schema.sql only creates missing tables, so
+-- older tables lack the column that every select reads and every update increments and checks.
+ALTER TABLE vets ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0;
+ALTER TABLE specialties ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0;
+ALTER TABLE types ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0;
+ALTER TABLE owners ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0;
+ALTER TABLE pets ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0;
+ALTER TABLE visits ADD COLUMN version INT(4) UNSIGNED NOT NULL DEFAULT 0;
+ALTER TABLE roles ADD COLUMN version int(11) NOT NULL DEFAULT 0;
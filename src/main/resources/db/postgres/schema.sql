@@ -1,13 +1,20 @@
+-- ids are drawn from pooled sequences (increment 50) so that JPA can batch inserts;
+-- the identity columns use the same sequences, so plain JDBC inserts never collide with them;
+-- a database created before then needs upgrade_pooled_sequences.sql once
+-- a database created before the version columns existed needs upgrade_versions.sql once
+-- a database created before owners.last_name_lower existed needs upgrade_last_name_lower.sql once
 CREATE TABLE IF NOT EXISTS vets (
-                                    id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                                    id         INT GENERATED BY DEFAULT AS IDENTITY (SEQUENCE NAME vets_seq START WITH 100 INCREMENT BY 50) PRIMARY KEY,
                                     first_name TEXT,
-                                    last_name  TEXT
+                                    last_name  TEXT,
+                                    version    INT NOT NULL DEFAULT 0
 );
 CREATE INDEX ON vets (last_name);
 
 CREATE TABLE IF NOT EXISTS specialties (
-                                           id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-                                           name TEXT
+                                           id   INT GENERATED BY DEFAULT AS IDENTITY (SEQUENCE NAME specialties_seq START WITH 100 INCREMENT BY 50) PRIMARY KEY,
+                                           name TEXT,
+                                           version INT NOT NULL DEFAULT 0
 );
 CREATE INDEX ON specialties (name);
 
@@ -18,36 +25,47 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 );
 
 CREATE TABLE IF NOT EXISTS types (
-                                     id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-                                     name TEXT
+                                     id   INT GENERATED BY DEFAULT AS IDENTITY (SEQUENCE NAME types_seq START WITH 100 INCREMENT BY 50) PRIMARY KEY,
+                                     name TEXT,
+                                     version INT NOT NULL DEFAULT 0
 );
 CREATE INDEX ON types (name);
 
 CREATE TABLE IF NOT EXISTS owners (
-                                      id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                                      id         INT GENERATED BY DEFAULT AS IDENTITY (SEQUENCE NAME owners_seq START WITH 100 INCREMENT BY 50) PRIMARY KEY,
                                       first_name TEXT,
                                       last_name  TEXT,
+                                      last_name_lower TEXT COLLATE "C" NOT NULL,
                                       address    TEXT,
                                       city       TEXT,
-                                      telephone  TEXT
+                                      telephone  TEXT,
+                                      version    INT NOT NULL DEFAULT 0
 );
-CREATE INDEX ON owners (last_name);
+CREATE INDEX ON owners (last_name, id);
+-- the "C" collation lets the btree index serve LIKE 'prefix%' searches
+CREATE INDEX ON owners (last_name_lower);
+CREATE INDEX ON owners (city, id);
+CREATE INDEX ON owners (telephone);
 
 CREATE TABLE IF NOT EXISTS pets (
-                                    id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                                    id         INT GENERATED BY DEFAULT AS IDENTITY (SEQUENCE NAME pets_seq START WITH 100 INCREMENT BY 50) PRIMARY KEY,
                                     name       TEXT,
                                     birth_date DATE,
                                     type_id    INT NOT NULL REFERENCES types (id),
-                                    owner_id   INT REFERENCES owners (id)
+                                    owner_id   INT REFERENCES owners (id),
+                                    version    INT NOT NULL DEFAULT 0
 );
-CREATE INDEX ON pets (name);
+-- text_pattern_ops lets the btree index serve the pets.name LIKE 'prefix%' searches under any database collation
+CREATE INDEX ON pets (name text_pattern_ops, owner_id);
+CREATE INDEX ON pets (type_id, owner_id);
 CREATE INDEX ON pets (owner_id);
 
 CREATE TABLE IF NOT EXISTS visits (
-                                      id          INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                                      id          INT GENERATED BY DEFAULT AS IDENTITY (SEQUENCE NAME visits_seq START WITH 100 INCREMENT BY 50) PRIMARY KEY,
                                       pet_id      INT REFERENCES pets (id),
                                       visit_date  DATE,
-                                      description TEXT
+                                      description TEXT,
+                                      version INT NOT NULL DEFAULT 0
 );
 CREATE INDEX ON visits (pet_id);
 
@@ -59,9 +77,10 @@ CREATE TABLE IF NOT EXISTS users (
 );
 
 CREATE TABLE IF NOT EXISTS roles (
-  id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id INT GENERATED BY DEFAULT AS IDENTITY (SEQUENCE NAME roles_seq START WITH 100 INCREMENT BY 50) PRIMARY KEY,
   username varchar(20) NOT NULL,
   role varchar(20) NOT NULL,
+  version INT NOT NULL DEFAULT 0,
   FOREIGN KEY (username) REFERENCES users (username),
   CONSTRAINT uni_username_role UNIQUE (role, username)
 );
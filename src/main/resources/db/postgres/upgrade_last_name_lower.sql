@@ -0,0 +1,7 @@
+-- Run once, before starting the application, on a database created before owners had the normalized last name that
+-- the case-insensitive searches match: schema.sql only creates missing tables, and then fails to index the column.
+ALTER TABLE owners ADD COLUMN IF NOT EXISTS last_name_lower TEXT COLLATE "C";
+UPDATE owners SET last_name_lower = LOWER(last_name) WHERE last_name_lower IS NULL;
+ALTER TABLE owners ALTER COLUMN last_name_lower SET NOT NULL;
+-- the "C" collation lets the btree index serve LIKE 'prefix%' searches
+CREATE INDEX IF NOT EXISTS owners_last_name_lower_idx ON owners (last_name_lower);
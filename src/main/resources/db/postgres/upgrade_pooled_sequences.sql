@@ -0,0 +1,17 @@
+-- Run once, e.g. with psql, on a database created before the ids were drawn from pooled sequences: schema.sql only
+-- creates missing tables, so older identity columns keep their default sequence, which JPA does not find.
+-- Renames each identity sequence to <table>_seq, lets it allocate blocks of 50 and moves it past the ids in use.
+-- The DO block cannot be run by spring.sql.init, which splits scripts at every semicolon.
+DO $$
+DECLARE
+  t TEXT;
+BEGIN
+  FOREACH t IN ARRAY ARRAY['vets', 'specialties', 'types', 'owners', 'pets', 'visits', 'roles'] LOOP
+    IF to_regclass(t || '_seq') IS NULL THEN
+      EXECUTE format('ALTER SEQUENCE %s RENAME TO %I', pg_get_serial_sequence(t, 'id'), t || '_seq');
+    END IF;
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET INCREMENT BY 50', t);
+    EXECUTE format('SELECT setval(%L, GREATEST(100, (SELECT COALESCE(MAX(id), 0) + 1 FROM %I)), false)', t || '_seq', t);
+  END LOOP;
+END
+$$;
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the statement counts of {@link JdbcOwnerRepositoryImpl}.
+ */
+@SpringBootTest
+@ActiveProfiles({"jdbc", "hsqldb"})
+class JdbcOwnerRepositoryImplTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private StatementCountingDataSource countingDataSource;
+
+    private JdbcOwnerRepositoryImpl ownerRepository;
+
+    @BeforeEach
+    void setUp() {
+        this.countingDataSource = new StatementCountingDataSource(this.dataSource);
+        this.ownerRepository = new JdbcOwnerRepositoryImpl(new NamedParameterJdbcTemplate(this.countingDataSource));
+    }
+
+    @Test
+    @Transactional
+    void shouldDeleteOwnerWithPetsAndVisitsInConstantStatements() {
+        Owner owner = new Owner();
+        owner.setId(6);
+
+        this.ownerRepository.delete(owner);
+
+        assertThat(this.countingDataSource.getStatementCount()).isEqualTo(3);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT count(*) FROM pets WHERE owner_id=6", Integer.class)).isZero();
+        assertThat(this.jdbcTemplate.queryForObject("SELECT count(*) FROM visits WHERE pet_id IN (7, 8)", Integer.class)).isZero();
+    }
+}
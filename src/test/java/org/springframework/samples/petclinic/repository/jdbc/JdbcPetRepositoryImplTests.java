@@ -0,0 +1,89 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.util.Collection;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.repository.VisitRepository;
+import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies the statement counts of {@link JdbcPetRepositoryImpl}.
+ */
+@SpringBootTest
+@ActiveProfiles({"jdbc", "hsqldb"})
+class JdbcPetRepositoryImplTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    private StatementCountingDataSource countingDataSource;
+
+    private JdbcPetRepositoryImpl petRepository;
+
+    @BeforeEach
+    void setUp() {
+        this.countingDataSource = new StatementCountingDataSource(this.dataSource);
+        this.petRepository = new JdbcPetRepositoryImpl(new NamedParameterJdbcTemplate(this.countingDataSource), this.visitRepository);
+    }
+
+    @Test
+    void shouldFindPetByIdWithTwoStatements() {
+        Pet pet = this.petRepository.findById(7);
+
+        assertThat(pet.getName()).isEqualTo("Samantha");
+        assertThat(pet.getType().getName()).isEqualTo("cat");
+        assertThat(pet.getOwner().getLastName()).isEqualTo("Coleman");
+        assertThat(pet.getOwner().getPet("Samantha")).isSameAs(pet);
+        assertThat(pet.getVisits()).hasSize(2);
+        assertThat(this.countingDataSource.getStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldFindAllPetsWithOneStatement() {
+        Collection<Pet> pets = this.petRepository.findAll();
+
+        assertThat(pets).hasSize(13);
+        Pet samantha = EntityUtils.getById(pets, Pet.class, 7);
+        Pet max = EntityUtils.getById(pets, Pet.class, 8);
+        assertThat(samantha.getVisits()).hasSize(2);
+        assertThat(samantha.getOwner()).isSameAs(max.getOwner());
+        assertThat(samantha.getType()).isSameAs(max.getType());
+        assertThat(this.countingDataSource.getStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailWhenPetDoesNotExist() {
+        assertThatThrownBy(() -> this.petRepository.findById(1000))
+            .isInstanceOf(ObjectRetrievalFailureException.class);
+    }
+}
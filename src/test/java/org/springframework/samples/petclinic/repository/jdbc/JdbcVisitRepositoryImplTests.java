@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.util.Collection;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that {@link JdbcVisitRepositoryImpl} loads visits with their pet, type and owner in a single query.
+ */
+@SpringBootTest
+@ActiveProfiles({"jdbc", "hsqldb"})
+class JdbcVisitRepositoryImplTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private StatementCountingDataSource countingDataSource;
+
+    private JdbcVisitRepositoryImpl visitRepository;
+
+    @BeforeEach
+    void setUp() {
+        this.countingDataSource = new StatementCountingDataSource(this.dataSource);
+        this.visitRepository = new JdbcVisitRepositoryImpl(new NamedParameterJdbcTemplate(this.countingDataSource));
+    }
+
+    @Test
+    void shouldFindAllVisitsWithOneStatement() {
+        Collection<Visit> visits = this.visitRepository.findAll();
+
+        assertThat(visits).hasSize(4);
+        assertThat(this.countingDataSource.getStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldShareAssociatedEntitiesAcrossVisits() {
+        Collection<Visit> visits = this.visitRepository.findAll();
+
+        Visit visit1 = EntityUtils.getById(visits, Visit.class, 1);
+        Visit visit4 = EntityUtils.getById(visits, Visit.class, 4);
+        assertThat(visit1.getPet().getName()).isEqualTo("Samantha");
+        assertThat(visit1.getPet()).isSameAs(visit4.getPet());
+        assertThat(visit1.getPet().getType().getName()).isEqualTo("cat");
+        assertThat(visit1.getPet().getOwner().getLastName()).isEqualTo("Coleman");
+
+        Visit visit2 = EntityUtils.getById(visits, Visit.class, 2);
+        assertThat(visit2.getPet().getName()).isEqualTo("Max");
+        assertThat(visit2.getPet().getType()).isSameAs(visit1.getPet().getType());
+        assertThat(visit2.getPet().getOwner()).isSameAs(visit1.getPet().getOwner());
+    }
+
+    @Test
+    void shouldFindVisitByIdWithOneStatement() {
+        Visit visit = this.visitRepository.findById(3);
+
+        assertThat(visit.getDescription()).isEqualTo("neutered");
+        assertThat(visit.getPet().getOwner().getFirstName()).isEqualTo("Jean");
+        assertThat(this.countingDataSource.getStatementCount()).isEqualTo(1);
+    }
+}
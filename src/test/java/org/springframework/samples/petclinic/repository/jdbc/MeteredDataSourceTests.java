@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.repository.OwnerRepository;
+import org.springframework.samples.petclinic.repository.VisitRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that the jdbc repositories share one configured {@link NamedParameterJdbcTemplate} and that the
+ * preparation of their statements is timed on every path, including batch updates and streamed queries.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:hsqldb:mem:metered-data-source")
+@ActiveProfiles({"jdbc", "hsqldb"})
+class MeteredDataSourceTests {
+
+    private static final String PREPARATION_TIMER = "petclinic.jdbc.statement.preparation";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Test
+    void shouldShareOneConfiguredTemplate() {
+        assertThat(this.namedParameterJdbcTemplate.getCacheLimit()).isEqualTo(1024);
+        assertThat((Object) AopTestUtils.getTargetObject(this.ownerRepository)).extracting("namedParameterJdbcTemplate").isSameAs(this.namedParameterJdbcTemplate);
+        assertThat((Object) AopTestUtils.getTargetObject(this.visitRepository)).extracting("namedParameterJdbcTemplate").isSameAs(this.namedParameterJdbcTemplate);
+    }
+
+    @Test
+    @Transactional
+    void shouldTimeTheStatementPreparationOfEveryPath() {
+        long prepared = preparedStatements();
+        this.ownerRepository.findById(1);
+        assertThat(preparedStatements()).isGreaterThan(prepared);
+
+        prepared = preparedStatements();
+        List<Owner> owners = new ArrayList<>();
+        for (String firstName : List.of("Ann", "Bob")) {
+            Owner owner = new Owner();
+            owner.setFirstName(firstName);
+            owner.setLastName("Metered");
+            owner.setAddress("1, Timer Street");
+            owner.setCity("Madison");
+            owner.setTelephone("6085551234");
+            owners.add(owner);
+        }
+        this.ownerRepository.saveAll(owners);
+        assertThat(preparedStatements()).isEqualTo(prepared + 1);
+
+        prepared = preparedStatements();
+        this.visitRepository.streamAll(visit -> { });
+        assertThat(preparedStatements()).isEqualTo(prepared + 1);
+    }
+
+    private long preparedStatements() {
+        return this.meterRegistry.get(PREPARATION_TIMER).timer().count();
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * JMH benchmark of a case-insensitive last name prefix search over 1M owners in an embedded H2 database created from
+ * <code>db/h2/schema.sql</code>. It compares {@link JdbcOwnerRepositoryImpl#findByLastName(String)}, which matches the
+ * indexed <code>last_name_lower</code> column, with the same query applying <code>LOWER</code> to
+ * <code>last_name</code>, which reads every row.
+ * <p>
+ * Run it from the IDE or with
+ * <code>mvn test-compile exec:java -Dexec.mainClass=org.springframework.samples.petclinic.repository.jdbc.OwnerLastNameSearchBenchmark -Dexec.classpathScope=test</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OwnerLastNameSearchBenchmark {
+
+    private static final int OWNERS = 1_000_000;
+
+    /**
+     * Number of distinct last names; the searched prefix matches 11 of them, about 220 owners.
+     */
+    private static final int LAST_NAMES = 50_000;
+
+    private static final String PREFIX = "NAME4242";
+
+    private EmbeddedDatabase database;
+
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private JdbcOwnerRepositoryImpl ownerRepository;
+
+    @Setup
+    public void setUp() {
+        this.database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("db/h2/schema.sql")
+            .build();
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(this.database);
+        this.namedParameterJdbcTemplate.getJdbcTemplate().execute(
+            "INSERT INTO owners (first_name, last_name, last_name_lower, address, city, telephone) " +
+                "SELECT 'First' || x, 'Name' || MOD(x, " + LAST_NAMES + "), 'name' || MOD(x, " + LAST_NAMES + "), " +
+                "x || ' Main St.', 'Madison', '6085550000' FROM SYSTEM_RANGE(1, " + OWNERS + ")");
+        this.ownerRepository = new JdbcOwnerRepositoryImpl(this.namedParameterJdbcTemplate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.database.shutdown();
+    }
+
+    @Benchmark
+    public Collection<Owner> normalizedColumn() {
+        return this.ownerRepository.findByLastName(PREFIX);
+    }
+
+    @Benchmark
+    public List<Owner> lowerFunction() {
+        return this.namedParameterJdbcTemplate.query(
+            "SELECT id, first_name, last_name, address, city, telephone, version FROM owners WHERE LOWER(last_name) LIKE :lastName",
+            Map.of("lastName", Owner.normalizeLastName(PREFIX) + "%"),
+            new JdbcOwnerRowMapper());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OwnerLastNameSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * JMH benchmark comparing {@link BeanPropertyRowMapper}, created per query as the repositories used to, with the
+ * index-based {@link JdbcOwnerRowMapper} when mapping an in-memory 100k-row owners {@link ResultSet}.
+ * <p>
+ * Run it from the IDE or with
+ * <code>mvn test-compile exec:java -Dexec.mainClass=org.springframework.samples.petclinic.repository.jdbc.RowMapperBenchmark -Dexec.classpathScope=test</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private SimpleResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        this.resultSet = new SimpleResultSet();
+        this.resultSet.setAutoClose(false);
+        this.resultSet.addColumn("id", Types.INTEGER, 10, 0);
+        this.resultSet.addColumn("first_name", Types.VARCHAR, 30, 0);
+        this.resultSet.addColumn("last_name", Types.VARCHAR, 30, 0);
+        this.resultSet.addColumn("address", Types.VARCHAR, 255, 0);
+        this.resultSet.addColumn("city", Types.VARCHAR, 80, 0);
+        this.resultSet.addColumn("telephone", Types.VARCHAR, 20, 0);
+        for (int id = 1; id <= ROWS; id++) {
+            this.resultSet.addRow(id, "George" + id, "Franklin", "110 W. Liberty St.", "Madison", "6085551023");
+        }
+    }
+
+    @Benchmark
+    public void beanPropertyRowMapper(Blackhole blackhole) throws SQLException {
+        map(BeanPropertyRowMapper.newInstance(Owner.class), blackhole);
+    }
+
+    @Benchmark
+    public void jdbcOwnerRowMapper(Blackhole blackhole) throws SQLException {
+        map(new JdbcOwnerRowMapper(), blackhole);
+    }
+
+    private void map(RowMapper<Owner> rowMapper, Blackhole blackhole) throws SQLException {
+        this.resultSet.beforeFirst();
+        int rowNum = 0;
+        while (this.resultSet.next()) {
+            blackhole.consume(rowMapper.mapRow(this.resultSet, rowNum++));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RowMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+
+/**
+ * Test {@link DataSource} that counts the statements prepared or created on its connections, used to verify that
+ * the JDBC repositories issue a constant number of queries. Connections take part in Spring-managed transactions of
+ * the target {@link DataSource}, so writes made through it are rolled back with the test transaction.
+ */
+class StatementCountingDataSource extends TransactionAwareDataSourceProxy {
+
+    private final AtomicInteger statementCount = new AtomicInteger();
+
+    StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    int getStatementCount() {
+        return this.statementCount.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingProxy(super.getConnection());
+    }
+
+    private Connection countingProxy(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement")) {
+                    this.statementCount.incrementAndGet();
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getTargetException();
+                }
+            });
+    }
+}
@@ -21,20 +21,27 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.mapper.OwnerMapper;
 import org.springframework.samples.petclinic.mapper.PetMapper;
 import org.springframework.samples.petclinic.mapper.VisitMapper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
+import org.springframework.samples.petclinic.rest.advice.SparseFieldsetsResponseBodyAdvice;
+import org.springframework.samples.petclinic.rest.dto.BulkOwnerUpdateDto;
 import org.springframework.samples.petclinic.rest.dto.OwnerDto;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
 import org.springframework.samples.petclinic.rest.dto.PetTypeDto;
 import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.samples.petclinic.service.clinicService.ApplicationTestConfig;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.samples.petclinic.util.KeysetPage;
+import org.springframework.samples.petclinic.util.OwnerSearch;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -46,9 +53,23 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -78,6 +99,9 @@ class OwnerRestControllerTests {
     @MockitoBean
     private ClinicService clinicService;
 
+    @Autowired
+    private SparseFieldsetsResponseBodyAdvice sparseFieldsetsResponseBodyAdvice;
+
     private MockMvc mockMvc;
 
     private List<OwnerDto> owners;
@@ -89,7 +113,7 @@ class OwnerRestControllerTests {
     @BeforeEach
     void initOwners() {
         this.mockMvc = MockMvcBuilders.standaloneSetup(ownerRestController)
-            .setControllerAdvice(new ExceptionControllerAdvice())
+            .setControllerAdvice(new ExceptionControllerAdvice(), sparseFieldsetsResponseBodyAdvice)
             .build();
         owners = new ArrayList<>();
 
@@ -159,6 +183,64 @@ class OwnerRestControllerTests {
             .andExpect(jsonPath("$.firstName").value("George"));
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnerNotModified() throws Exception {
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
+        String eTag = this.mockMvc.perform(get("/api/owners/1")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        this.mockMvc.perform(get("/api/owners/1")
+                .header("If-None-Match", eTag)
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", eTag))
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnerETagIgnoresOrderOfTiedPetsAndVisits() throws Exception {
+        LocalDate date = LocalDate.now();
+        PetDto rosy = getTestPetWithIdAndName(owners.get(0), 1, "Rosy").addVisitsItem(getTestVisitForPet(null, 2).date(date));
+        rosy.getVisits().get(0).setDate(date);
+        PetDto otherRosy = getTestPetWithIdAndName(owners.get(0), 2, "Rosy");
+        OwnerDto owner = owners.get(0).pets(List.of(rosy, otherRosy));
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owner));
+        String eTag = this.mockMvc.perform(get("/api/owners/1")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn().getResponse().getHeader("ETag");
+
+        rosy.setVisits(List.of(rosy.getVisits().get(1), rosy.getVisits().get(0)));
+        owner.pets(List.of(otherRosy, rosy));
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owner));
+        this.mockMvc.perform(get("/api/owners/1")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", eTag));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnerModifiedSinceETag() throws Exception {
+        Owner owner = ownerMapper.toOwner(owners.get(0));
+        given(this.clinicService.findOwnerById(1)).willReturn(owner);
+        String eTag = this.mockMvc.perform(get("/api/owners/1")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn().getResponse().getHeader("ETag");
+
+        owner.getPets().get(0).setVersion(1);
+        this.mockMvc.perform(get("/api/owners/1")
+                .header("If-None-Match", eTag)
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", not(eTag)))
+            .andExpect(jsonPath("$.id").value(1));
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetOwnerNotFound() throws Exception {
@@ -173,7 +255,7 @@ class OwnerRestControllerTests {
     void testGetOwnersListSuccess() throws Exception {
         owners.remove(0);
         owners.remove(1);
-        given(this.clinicService.findOwnerByLastName("Davis")).willReturn(ownerMapper.toOwners(owners));
+        given(this.clinicService.findOwnerPageByLastName("Davis", 0, 20, Embed.ALL)).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners)), 20));
         this.mockMvc.perform(get("/api/owners?lastName=Davis")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
@@ -188,7 +270,7 @@ class OwnerRestControllerTests {
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetOwnersListNotFound() throws Exception {
         owners.clear();
-        given(this.clinicService.findOwnerByLastName("0")).willReturn(ownerMapper.toOwners(owners));
+        given(this.clinicService.findOwnerPageByLastName("0", 0, 20, Embed.ALL)).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners)), 20));
         this.mockMvc.perform(get("/api/owners?lastName=0")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
@@ -199,7 +281,7 @@ class OwnerRestControllerTests {
     void testGetAllOwnersSuccess() throws Exception {
         owners.remove(0);
         owners.remove(1);
-        given(this.clinicService.findAllOwners()).willReturn(ownerMapper.toOwners(owners));
+        given(this.clinicService.findOwnerPage(0, 20, Embed.ALL)).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners)), 20));
         this.mockMvc.perform(get("/api/owners")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
@@ -210,11 +292,107 @@ class OwnerRestControllerTests {
             .andExpect(jsonPath("$.[1].firstName").value("Harold"));
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersPageWithNextPageLink() throws Exception {
+        given(this.clinicService.findOwnerPageByLastName("Davis", 0, 1, Embed.ALL)).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners)), 1));
+        this.mockMvc.perform(get("/api/owners?lastName=Davis&limit=1")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(1))
+            .andExpect(header().string("Link", "<http://localhost/api/owners?lastName=Davis&cursor=1&limit=1>; rel=\"next\""))
+            .andExpect(header().string("X-Next-Cursor", "1"));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersLastPageWithoutNextPageLink() throws Exception {
+        given(this.clinicService.findOwnerPage(0, 100, Embed.ALL)).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners)), 100));
+        this.mockMvc.perform(get("/api/owners?limit=1000")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testSearchOwnersWithOpaqueNextCursor() throws Exception {
+        OwnerSearch search = new OwnerSearch(null, "Madison", null, null, null, OwnerSearch.SortKey.LAST_NAME, true);
+        given(this.clinicService.searchOwners(search, null, 1, Embed.ALL)).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners)), 1));
+        this.mockMvc.perform(get("/api/owners/search?city=Madison&sort=-lastName&limit=1")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].lastName").value("Franklin"))
+            .andExpect(header().string("Link", "<http://localhost/api/owners/search?city=Madison&sort=-lastName&cursor=MTpGcmFua2xpbg&limit=1>; rel=\"next\""))
+            .andExpect(header().string("X-Next-Cursor", "MTpGcmFua2xpbg"));
+
+        given(this.clinicService.searchOwners(search, new OwnerSearch.After("Franklin", 1), 1, Embed.ALL)).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners.subList(3, 4))), 1));
+        this.mockMvc.perform(get("/api/owners/search?city=Madison&sort=-lastName&cursor=MTpGcmFua2xpbg&limit=1")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(4))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testSearchOwnersBadSortOrCursor() throws Exception {
+        this.mockMvc.perform(get("/api/owners/search?sort=firstName")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.detail").value("Unknown sort: firstName"));
+        // a cursor of a search ordered by last name does not continue a search ordered by id
+        this.mockMvc.perform(get("/api/owners/search?cursor=MTpGcmFua2xpbg")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.detail").value("Invalid cursor: MTpGcmFua2xpbg"));
+        verify(this.clinicService, never()).searchOwners(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersSparseFieldsetWithoutPets() throws Exception {
+        given(this.clinicService.findOwnerPage(0, 20, Set.of())).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners)), 20));
+        this.mockMvc.perform(get("/api/owners?fields=lastName,city")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(1))
+            .andExpect(jsonPath("$.[0].lastName").value("Franklin"))
+            .andExpect(jsonPath("$.[0].city").value("Madison"))
+            .andExpect(jsonPath("$.[0]", not(hasKey("firstName"))))
+            .andExpect(jsonPath("$.[0]", not(hasKey("pets"))));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersEmbeddingPetsWithoutVisits() throws Exception {
+        given(this.clinicService.findOwnerPage(0, 20, Set.of(Embed.PETS))).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners)), 20));
+        this.mockMvc.perform(get("/api/owners?embed=pets")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].firstName").value("George"))
+            .andExpect(jsonPath("$.[0].pets[0].name").value("Rosy"))
+            .andExpect(jsonPath("$.[0].pets[0]", not(hasKey("visits"))));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersUnknownFieldBadRequest() throws Exception {
+        this.mockMvc.perform(get("/api/owners?fields=lastName,salary")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.detail").value("Unknown field: salary"));
+        verify(this.clinicService, never()).findOwnerPage(anyInt(), anyInt(), any());
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetAllOwnersNotFound() throws Exception {
         owners.clear();
-        given(this.clinicService.findAllOwners()).willReturn(ownerMapper.toOwners(owners));
+        given(this.clinicService.findOwnerPage(0, 20, Embed.ALL)).willReturn(KeysetPage.of(new ArrayList<>(ownerMapper.toOwners(owners)), 20));
         this.mockMvc.perform(get("/api/owners")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
@@ -249,6 +427,26 @@ class OwnerRestControllerTests {
             .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testCreateOwnersInBulkError() throws Exception {
+        OwnerDto firstOwnerDto = owners.get(0);
+        firstOwnerDto.setTelephone("not a number");
+        OwnerDto secondOwnerDto = owners.get(1);
+        secondOwnerDto.setFirstName(null);
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        String newOwnersAsJSON = mapper.writeValueAsString(List.of(firstOwnerDto, secondOwnerDto, owners.get(2)));
+        this.mockMvc.perform(post("/api/owners/bulk")
+                .content(newOwnersAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.schemaValidationErrors.length()").value(2))
+            .andExpect(jsonPath("$.schemaValidationErrors[?(@.index == 0)].message").value(contains(startsWith("[Path '/0/telephone']"))))
+            .andExpect(jsonPath("$.schemaValidationErrors[?(@.index == 1)].message").value(contains("[Path '/1/firstName'] must not be null")));
+        verify(this.clinicService, never()).saveOwners(any());
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testUpdateOwnerSuccess() throws Exception {
@@ -308,6 +506,116 @@ class OwnerRestControllerTests {
 
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testUpdateOwnerPreconditionFailed() throws Exception {
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
+        String newOwnerAsJSON = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(owners.get(0));
+        this.mockMvc.perform(put("/api/owners/1")
+                .header("If-Match", "\"0123456789abcdef\"")
+                .content(newOwnerAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isPreconditionFailed());
+        verify(this.clinicService, never()).saveOwner(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testUpdateOwnerWithCurrentETag() throws Exception {
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
+        String eTag = this.mockMvc.perform(get("/api/owners/1")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn().getResponse().getHeader("ETag");
+        String newOwnerAsJSON = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(owners.get(0));
+        this.mockMvc.perform(put("/api/owners/1")
+                .header("If-Match", eTag)
+                .content(newOwnerAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isNoContent());
+        verify(this.clinicService).saveOwner(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testUpdateOwnerConcurrentlyModified() throws Exception {
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
+        willThrow(new ObjectOptimisticLockingFailureException(Owner.class, 1)).given(this.clinicService).saveOwner(any());
+        String newOwnerAsJSON = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(owners.get(0));
+        this.mockMvc.perform(put("/api/owners/1")
+                .content(newOwnerAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testUpdateOwnersInBulkSuccess() throws Exception {
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
+        given(this.clinicService.findOwnerById(2)).willReturn(ownerMapper.toOwner(owners.get(1)));
+        String eTag = this.mockMvc.perform(get("/api/owners/1")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andReturn().getResponse().getHeader("ETag");
+        String updatesAsJSON = new ObjectMapper().writeValueAsString(List.of(
+            bulkOwnerUpdate(owners.get(0), eTag).firstName("GeorgeI"),
+            bulkOwnerUpdate(owners.get(1), null).firstName("BettyI")));
+        this.mockMvc.perform(put("/api/owners/bulk")
+                .content(updatesAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].status").value(204))
+            .andExpect(jsonPath("$.[0].location").value("/api/owners/1"))
+            .andExpect(jsonPath("$.[1].status").value(204));
+        ArgumentCaptor<Collection<Owner>> saved = ArgumentCaptor.captor();
+        verify(this.clinicService).saveOwners(saved.capture());
+        assertThat(saved.getValue()).extracting(Owner::getFirstName).containsExactly("GeorgeI", "BettyI");
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testUpdateOwnersInBulkReportsMissingAndOutdatedItems() throws Exception {
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
+        given(this.clinicService.findOwnerById(2)).willReturn(ownerMapper.toOwner(owners.get(1)));
+        String updatesAsJSON = new ObjectMapper().writeValueAsString(List.of(
+            bulkOwnerUpdate(owners.get(0), null),
+            bulkOwnerUpdate(owners.get(1), "\"0123456789abcdef\""),
+            bulkOwnerUpdate(owners.get(2), null).id(99)));
+        this.mockMvc.perform(put("/api/owners/bulk")
+                .content(updatesAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isMultiStatus())
+            .andExpect(jsonPath("$.[0].status").value(204))
+            .andExpect(jsonPath("$.[1].status").value(412))
+            .andExpect(jsonPath("$.[2].status").value(404));
+        ArgumentCaptor<Collection<Owner>> saved = ArgumentCaptor.captor();
+        verify(this.clinicService).saveOwners(saved.capture());
+        assertThat(saved.getValue()).extracting(Owner::getId).containsExactly(1);
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testUpdateOwnersInBulkConcurrentlyModified() throws Exception {
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
+        given(this.clinicService.findOwnerById(2)).willReturn(ownerMapper.toOwner(owners.get(1)));
+        willAnswer(invocation -> {
+            Collection<Owner> saved = invocation.getArgument(0);
+            if (saved.stream().anyMatch(owner -> owner.getId() == 2)) {
+                throw new ObjectOptimisticLockingFailureException(Owner.class, 2);
+            }
+            return null;
+        }).given(this.clinicService).saveOwners(any());
+        String updatesAsJSON = new ObjectMapper().writeValueAsString(List.of(
+            bulkOwnerUpdate(owners.get(0), null), bulkOwnerUpdate(owners.get(1), null)));
+        this.mockMvc.perform(put("/api/owners/bulk")
+                .content(updatesAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isMultiStatus())
+            .andExpect(jsonPath("$.[0].status").value(204))
+            .andExpect(jsonPath("$.[1].status").value(412))
+            .andExpect(jsonPath("$.[1].errors[0].message").value("The resource was updated concurrently"));
+        // the chunk, then each of its items on its own
+        verify(this.clinicService, times(3)).saveOwners(any());
+    }
+
+    private static BulkOwnerUpdateDto bulkOwnerUpdate(OwnerDto owner, String eTag) {
+        return new BulkOwnerUpdateDto().id(owner.getId()).etag(eTag).firstName(owner.getFirstName())
+            .lastName(owner.getLastName()).address(owner.getAddress()).city(owner.getCity())
+            .telephone(owner.getTelephone());
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testUpdateOwnerError() throws Exception {
@@ -21,22 +21,30 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.mapper.PetMapper;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
+import org.springframework.samples.petclinic.rest.advice.SparseFieldsetsResponseBodyAdvice;
+import org.springframework.samples.petclinic.rest.dto.BulkPetUpdateDto;
 import org.springframework.samples.petclinic.rest.dto.OwnerDto;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
 import org.springframework.samples.petclinic.rest.dto.PetTypeDto;
+import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.samples.petclinic.service.clinicService.ApplicationTestConfig;
+import org.springframework.samples.petclinic.util.Embed;
+import org.springframework.samples.petclinic.util.KeysetPage;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.text.SimpleDateFormat;
@@ -44,8 +52,17 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -68,6 +85,8 @@ class PetRestControllerTests {
     private PetRestController petRestController;
     @Autowired
     private PetMapper petMapper;
+    @Autowired
+    private SparseFieldsetsResponseBodyAdvice sparseFieldsetsResponseBodyAdvice;
     private MockMvc mockMvc;
 
     private List<PetDto> pets;
@@ -75,7 +94,7 @@ class PetRestControllerTests {
     @BeforeEach
     void initPets() {
         this.mockMvc = MockMvcBuilders.standaloneSetup(petRestController)
-            .setControllerAdvice(new ExceptionControllerAdvice())
+            .setControllerAdvice(new ExceptionControllerAdvice(), sparseFieldsetsResponseBodyAdvice)
             .build();
         pets = new ArrayList<>();
 
@@ -129,8 +148,7 @@ class PetRestControllerTests {
     void testGetAllPetsSuccess() throws Exception {
         final Collection<Pet> pets = petMapper.toPets(this.pets);
         System.err.println(pets);
-        when(this.clinicService.findAllPets()).thenReturn(pets);
-        //given(this.clinicService.findAllPets()).willReturn(petMapper.toPets(pets));
+        when(this.clinicService.findPetPage(0, 20, Set.of(Embed.VISITS))).thenReturn(KeysetPage.of(new ArrayList<>(pets), 20));
         this.mockMvc.perform(get("/api/pets")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
@@ -141,16 +159,143 @@ class PetRestControllerTests {
             .andExpect(jsonPath("$.[1].name").value("Jewel"));
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetPetsWithoutEmbeddedVisits() throws Exception {
+        given(this.clinicService.findPetPage(0, 20, Set.of())).willReturn(KeysetPage.of(new ArrayList<>(petMapper.toPets(pets)), 20));
+        this.mockMvc.perform(get("/api/pets?fields=name,type,visits&embed=")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(3))
+            .andExpect(jsonPath("$.[0].name").value("Rosy"))
+            .andExpect(jsonPath("$.[0].type.name").exists())
+            .andExpect(jsonPath("$.[0]", not(hasKey("birthDate"))))
+            .andExpect(jsonPath("$.[0]", not(hasKey("visits"))));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetPetsKeepsNullPropertiesWithoutFieldsOrEmbed() throws Exception {
+        pets.get(0).setBirthDate(null);
+        given(this.clinicService.findPetPage(0, 20, Set.of(Embed.VISITS))).willReturn(KeysetPage.of(new ArrayList<>(petMapper.toPets(pets)), 20));
+        this.mockMvc.perform(get("/api/pets")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0]", hasKey("birthDate")))
+            .andExpect(jsonPath("$.[0].birthDate").isEmpty());
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetAllPetsNotFound() throws Exception {
         pets.clear();
-        given(this.clinicService.findAllPets()).willReturn(petMapper.toPets(pets));
+        given(this.clinicService.findPetPage(0, 20, Set.of(Embed.VISITS))).willReturn(KeysetPage.of(new ArrayList<>(petMapper.toPets(pets)), 20));
         this.mockMvc.perform(get("/api/pets")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testExportPetsStreamsEveryPet() throws Exception {
+        pets.get(1).addVisitsItem(new VisitDto().id(2).date(LocalDate.now()).description("rabies shot"));
+        willAnswer(invocation -> {
+            Consumer<Pet> action = invocation.getArgument(0);
+            petMapper.toPets(pets).forEach(action);
+            return null;
+        }).given(this.clinicService).streamAllPets(any());
+        MvcResult result = this.mockMvc.perform(get("/api/pets/export")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(3))
+            .andExpect(jsonPath("$.[0].type.name").value("dog"))
+            .andExpect(jsonPath("$.[1].name").value("Jewel"))
+            .andExpect(jsonPath("$.[1].visits.[0].description").value("rabies shot"));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testCreatePetsInBulkSuccess() throws Exception {
+        givenOwnersAndPetTypesExistExceptId999();
+        willAnswer(invocation -> {
+            Collection<Pet> saved = invocation.getArgument(0);
+            int id = 20;
+            for (Pet pet : saved) {
+                pet.setId(id++);
+            }
+            return null;
+        }).given(this.clinicService).savePets(any());
+        this.mockMvc.perform(post("/api/pets/bulk")
+                .content("[{\"name\":\"Rosy\",\"birthDate\":\"2025-03-01\",\"type\":{\"id\":2,\"name\":\"dog\"},\"ownerId\":1}," +
+                    "{\"name\":\"Jewel\",\"birthDate\":\"2025-03-02\",\"type\":{\"id\":2,\"name\":\"dog\"},\"ownerId\":3}]")
+                .accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.[0].location").value("/api/pets/20"))
+            .andExpect(jsonPath("$.[1].id").value(21));
+        ArgumentCaptor<Collection<Pet>> saved = ArgumentCaptor.captor();
+        verify(this.clinicService).savePets(saved.capture());
+        assertThat(saved.getValue()).extracting(pet -> pet.getOwner().getId()).containsExactly(1, 3);
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testCreatePetsInBulkReportsMissingOwnersAndTypesBeforeSaving() throws Exception {
+        givenOwnersAndPetTypesExistExceptId999();
+        this.mockMvc.perform(post("/api/pets/bulk")
+                .content("[{\"name\":\"Rosy\",\"birthDate\":\"2025-03-01\",\"type\":{\"id\":2,\"name\":\"dog\"},\"ownerId\":999}," +
+                    "{\"name\":\"Jewel\",\"birthDate\":\"2025-03-02\",\"type\":{\"id\":999,\"name\":\"dragon\"},\"ownerId\":3}]")
+                .accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isMultiStatus())
+            .andExpect(jsonPath("$.[0].status").value(404))
+            .andExpect(jsonPath("$.[0].errors[0].message").value("Owner 999 not found"))
+            .andExpect(jsonPath("$.[1].status").value(404))
+            .andExpect(jsonPath("$.[1].errors[0].message").value("Pet type 999 not found"));
+        verify(this.clinicService, never()).savePets(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testUpdatePetsInBulkChecksTypesAndETags() throws Exception {
+        givenOwnersAndPetTypesExistExceptId999();
+        given(this.clinicService.findPetById(3)).willReturn(petMapper.toPet(pets.get(0)));
+        given(this.clinicService.findPetById(4)).willReturn(petMapper.toPet(pets.get(1)));
+        String eTag = this.mockMvc.perform(get("/api/pets/3")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+        PetTypeDto dog = new PetTypeDto().id(2).name("dog");
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        String updatesAsJSON = mapper.writeValueAsString(List.of(
+            new BulkPetUpdateDto().id(3).etag(eTag).name("Rosy I").birthDate(LocalDate.now()).type(dog),
+            new BulkPetUpdateDto().id(4).etag(eTag).name("Jewel I").birthDate(LocalDate.now()).type(dog),
+            new BulkPetUpdateDto().id(3).name("Rosy II").birthDate(LocalDate.now()).type(new PetTypeDto().id(999).name("dragon"))));
+        this.mockMvc.perform(put("/api/pets/bulk")
+                .content(updatesAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isMultiStatus())
+            .andExpect(jsonPath("$.[0].status").value(204))
+            .andExpect(jsonPath("$.[1].status").value(412))
+            .andExpect(jsonPath("$.[2].status").value(404))
+            .andExpect(jsonPath("$.[2].errors[0].message").value("Pet type 999 not found"));
+        ArgumentCaptor<Collection<Pet>> saved = ArgumentCaptor.captor();
+        verify(this.clinicService).savePets(saved.capture());
+        assertThat(saved.getValue()).extracting(Pet::getName).containsExactly("Rosy I");
+    }
+
+    private void givenOwnersAndPetTypesExistExceptId999() {
+        willAnswer(invocation -> invocation.<Collection<Integer>>getArgument(0).stream().filter(id -> id != 999).toList())
+            .given(this.clinicService).findExistingOwnerIds(any());
+        PetType dog = new PetType();
+        dog.setId(2);
+        dog.setName("dog");
+        given(this.clinicService.findAllPetTypes()).willReturn(List.of(dog));
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testUpdatePetSuccess() throws Exception {
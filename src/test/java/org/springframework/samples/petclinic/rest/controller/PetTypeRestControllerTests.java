@@ -37,7 +37,10 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -214,6 +217,40 @@ class PetTypeRestControllerTests {
             .andExpect(jsonPath("$.name").value("dog I"));
     }
 
+    @Test
+    @WithMockUser(roles="VET_ADMIN")
+    void testGetAllPetTypesNotModified() throws Exception {
+        given(this.clinicService.findAllPetTypes()).willReturn(petTypes);
+        String eTag = this.mockMvc.perform(get("/api/pettypes")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+
+        this.mockMvc.perform(get("/api/pettypes")
+            .header("If-None-Match", "\"0123456789abcdef\", W/" + eTag)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", eTag));
+    }
+
+    @Test
+    @WithMockUser(roles="VET_ADMIN")
+    void testUpdatePetTypePreconditionFailed() throws Exception {
+        PetType petType = petTypes.get(1);
+        given(this.clinicService.findPetTypeById(2)).willReturn(petType);
+        String eTag = this.mockMvc.perform(get("/api/pettypes/2")
+            .accept(MediaType.APPLICATION_JSON))
+            .andReturn().getResponse().getHeader("ETag");
+
+        petType.setVersion(petType.getVersion() + 1);
+        String newPetTypeAsJSON = new ObjectMapper().writeValueAsString(petTypeMapper.toPetTypeDto(petType));
+        this.mockMvc.perform(put("/api/pettypes/2")
+            .header("If-Match", eTag)
+            .content(newPetTypeAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isPreconditionFailed());
+        verify(this.clinicService, never()).savePetType(any());
+    }
+
     @Test
     @WithMockUser(roles="VET_ADMIN")
     void testUpdatePetTypeError() throws Exception {
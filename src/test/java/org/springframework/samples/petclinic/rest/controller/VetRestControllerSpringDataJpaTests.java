@@ -0,0 +1,89 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Entity tags of the vet list against the spring-data-jpa repositories, which read the page through projections.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:hsqldb:mem:vet-rest-controller-spring-data-jpa",
+    "spring.jpa.properties.hibernate.cache.region_prefix=vet-rest-controller-spring-data-jpa",
+    "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create"
+})
+@ActiveProfiles({"spring-data-jpa", "hsqldb"})
+@WebAppConfiguration
+class VetRestControllerSpringDataJpaTests {
+
+    @Autowired
+    private VetRestController vetRestController;
+
+    @Autowired
+    private ClinicService clinicService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void initMockMvc() {
+        this.mockMvc = MockMvcBuilders.standaloneSetup(vetRestController)
+            .setControllerAdvice(new ExceptionControllerAdvice())
+            .build();
+    }
+
+    @Test
+    @WithMockUser(roles = "VET_ADMIN")
+    void testGetAllVetsETagChangesAfterSaveVetAndSaveSpecialty() throws Exception {
+        String eTag = getAllVetsETag();
+
+        Vet vet = this.clinicService.findVetById(3);
+        vet.setLastName("Douglas-Carter");
+        this.clinicService.saveVet(vet);
+        String eTagAfterSaveVet = getAllVetsETag();
+        assertThat(eTagAfterSaveVet).isNotEqualTo(eTag);
+
+        Specialty surgery = this.clinicService.findSpecialtyById(2);
+        surgery.setName("general surgery");
+        this.clinicService.saveSpecialty(surgery);
+        assertThat(getAllVetsETag()).isNotEqualTo(eTagAfterSaveVet);
+    }
+
+    private String getAllVetsETag() throws Exception {
+        return this.mockMvc.perform(get("/api/vets")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+    }
+
+}
@@ -27,6 +27,7 @@ import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.samples.petclinic.service.clinicService.ApplicationTestConfig;
+import org.springframework.samples.petclinic.util.KeysetPage;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -115,7 +116,7 @@ class VetRestControllerTests {
     @Test
     @WithMockUser(roles="VET_ADMIN")
     void testGetAllVetsSuccess() throws Exception {
-    	given(this.clinicService.findAllVets()).willReturn(vets);
+    	given(this.clinicService.findVetPage(0, 20)).willReturn(KeysetPage.of(vets, 20));
         this.mockMvc.perform(get("/api/vets")
         	.accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
@@ -126,11 +127,34 @@ class VetRestControllerTests {
             .andExpect(jsonPath("$.[1].firstName").value("Helen"));
     }
 
+    @Test
+    @WithMockUser(roles="VET_ADMIN")
+    void testGetAllVetsNotModified() throws Exception {
+        given(this.clinicService.findVetPage(0, 20)).willReturn(KeysetPage.of(vets, 20));
+        String eTag = this.mockMvc.perform(get("/api/vets")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+
+        this.mockMvc.perform(get("/api/vets")
+            .header("If-None-Match", eTag)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", eTag));
+
+        vets.get(0).setVersion(1);
+        this.mockMvc.perform(get("/api/vets")
+            .header("If-None-Match", eTag)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(1));
+    }
+
     @Test
     @WithMockUser(roles="VET_ADMIN")
     void testGetAllVetsNotFound() throws Exception {
     	vets.clear();
-    	given(this.clinicService.findAllVets()).willReturn(vets);
+    	given(this.clinicService.findVetPage(0, 20)).willReturn(KeysetPage.of(vets, 20));
         this.mockMvc.perform(get("/api/vets")
         	.accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
@@ -23,27 +23,41 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.samples.petclinic.mapper.VisitMapper;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
+import org.springframework.samples.petclinic.rest.dto.BulkVisitUpdateDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.samples.petclinic.service.clinicService.ApplicationTestConfig;
+import org.springframework.samples.petclinic.util.KeysetPage;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -66,6 +80,12 @@ class VisitRestControllerTests {
     @Autowired
     private VisitMapper visitMapper;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NdjsonHttpMessageConverter ndjsonHttpMessageConverter;
+
     private MockMvc mockMvc;
 
     private List<Visit> visits;
@@ -139,7 +159,7 @@ class VisitRestControllerTests {
     @Test
     @WithMockUser(roles="OWNER_ADMIN")
     void testGetAllVisitsSuccess() throws Exception {
-    	given(this.clinicService.findAllVisits()).willReturn(visits);
+    	given(this.clinicService.findVisitPage(0, 20)).willReturn(KeysetPage.of(visits, 20));
         this.mockMvc.perform(get("/api/visits")
         	.accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
@@ -150,11 +170,32 @@ class VisitRestControllerTests {
         	.andExpect(jsonPath("$.[1].description").value("neutered"));
     }
 
+    @Test
+    @WithMockUser(roles="OWNER_ADMIN")
+    void testExportVisitsStreamsEveryVisit() throws Exception {
+        willAnswer(invocation -> {
+            Consumer<Visit> action = invocation.getArgument(0);
+            visits.forEach(action);
+            return null;
+        }).given(this.clinicService).streamAllVisits(any());
+        MvcResult result = this.mockMvc.perform(get("/api/visits/export")
+        	.accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.length()").value(2))
+        	.andExpect(jsonPath("$.[0].id").value(2))
+        	.andExpect(jsonPath("$.[0].petId").value(8))
+        	.andExpect(jsonPath("$.[1].description").value("neutered"));
+    }
+
     @Test
     @WithMockUser(roles="OWNER_ADMIN")
     void testGetAllVisitsNotFound() throws Exception {
     	visits.clear();
-    	given(this.clinicService.findAllVisits()).willReturn(visits);
+    	given(this.clinicService.findVisitPage(0, 20)).willReturn(KeysetPage.of(visits, 20));
         this.mockMvc.perform(get("/api/visits")
         	.accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
@@ -189,6 +230,119 @@ class VisitRestControllerTests {
         		.andExpect(status().isBadRequest());
      }
 
+    @Test
+    @WithMockUser(roles="OWNER_ADMIN")
+    void testCreateVisitsInBulkSuccess() throws Exception {
+        givenBulkSaveAssignsIdsAndPet999IsMissing();
+        this.mockMvc.perform(post("/api/visits/bulk")
+            .content("[{\"date\":\"2026-01-01\",\"description\":\"rabies shot\",\"petId\":8}," +
+                "{\"date\":\"2026-01-02\",\"description\":\"neutered\",\"petId\":8}]")
+            .accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].index").value(0))
+            .andExpect(jsonPath("$.[0].status").value(201))
+            .andExpect(jsonPath("$.[0].id").value(10))
+            .andExpect(jsonPath("$.[1].location").value("/api/visits/11"));
+        verify(this.clinicService, times(1)).saveVisits(any());
+    }
+
+    @Test
+    @WithMockUser(roles="OWNER_ADMIN")
+    void testCreateVisitsInBulkReportsMissingPetsBeforeSaving() throws Exception {
+        givenBulkSaveAssignsIdsAndPet999IsMissing();
+        this.mockMvc.perform(post("/api/visits/bulk")
+            .content("[{\"description\":\"rabies shot\",\"petId\":8}," +
+                "{\"description\":\"unknown pet\",\"petId\":999}," +
+                "{\"description\":\"neutered\",\"petId\":8}]")
+            .accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isMultiStatus())
+            .andExpect(jsonPath("$.[0].status").value(201))
+            .andExpect(jsonPath("$.[0].id").value(10))
+            .andExpect(jsonPath("$.[1].status").value(404))
+            .andExpect(jsonPath("$.[1].id").doesNotExist())
+            .andExpect(jsonPath("$.[1].errors[0].message").value("Pet 999 not found"))
+            .andExpect(jsonPath("$.[2].status").value(201))
+            .andExpect(jsonPath("$.[2].id").value(11));
+        verify(this.clinicService, times(1)).findExistingPetIds(any());
+        verify(this.clinicService, times(1)).saveVisits(any());
+    }
+
+    @Test
+    @WithMockUser(roles="OWNER_ADMIN")
+    void testCreateVisitsInBulkHidesTheCauseOfOtherFailures() throws Exception {
+        givenBulkSaveAssignsIdsAndPet999IsMissing();
+        this.mockMvc.perform(post("/api/visits/bulk")
+            .content("[{\"description\":\"rabies shot\",\"petId\":8}," +
+                "{\"description\":\"duplicate\",\"petId\":8}]")
+            .accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isMultiStatus())
+            .andExpect(jsonPath("$.[0].status").value(201))
+            .andExpect(jsonPath("$.[1].status").value(500))
+            .andExpect(jsonPath("$.[1].errors[0].message").value("The item could not be saved"));
+    }
+
+    @Test
+    @WithMockUser(roles="OWNER_ADMIN")
+    void testCreateVisitsInBulkValidatesAllItemsFirst() throws Exception {
+        this.mockMvc.perform(post("/api/visits/bulk")
+            .content("[{\"description\":\"rabies shot\",\"petId\":8},{\"description\":\"no pet\"}]")
+            .accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.schemaValidationErrors.length()").value(1))
+            .andExpect(jsonPath("$.schemaValidationErrors[0].index").value(1))
+            .andExpect(jsonPath("$.schemaValidationErrors[0].message").value("[Path '/1/petId'] must not be null"));
+        verify(this.clinicService, never()).saveVisits(any());
+    }
+
+    @Test
+    @WithMockUser(roles="OWNER_ADMIN")
+    void testCreateVisitsInBulkFromNdjson() throws Exception {
+        givenBulkSaveAssignsIdsAndPet999IsMissing();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(visitRestController)
+            .setControllerAdvice(new ExceptionControllerAdvice())
+            .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper), ndjsonHttpMessageConverter)
+            .build();
+        mockMvc.perform(post("/api/visits/bulk")
+            .content("{\"description\":\"rabies shot\",\"petId\":8}\n{\"description\":\"neutered\",\"petId\":8}\n")
+            .accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_NDJSON_VALUE))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[1].id").value(11));
+    }
+
+    @Test
+    @WithMockUser(roles="OWNER_ADMIN")
+    void testCreateVisitsInBulkFromNdjsonStopsReadingAtMaxItems() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(visitRestController)
+            .setControllerAdvice(new ExceptionControllerAdvice())
+            .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper),
+                new NdjsonHttpMessageConverter(objectMapper, 1))
+            .build();
+        mockMvc.perform(post("/api/visits/bulk")
+            // the second line is not even valid JSON: reading stops before it is parsed
+            .content("{\"description\":\"rabies shot\",\"petId\":8}\n{\"description\":\n")
+            .accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_NDJSON_VALUE))
+            .andExpect(status().isPayloadTooLarge())
+            .andExpect(jsonPath("$.detail").value("A bulk request holds at most 1 items"));
+        verify(this.clinicService, never()).saveVisits(any());
+    }
+
+    private void givenBulkSaveAssignsIdsAndPet999IsMissing() {
+        willAnswer(invocation -> invocation.<Collection<Integer>>getArgument(0).stream().filter(id -> id != 999).toList())
+            .given(this.clinicService).findExistingPetIds(any());
+        AtomicInteger nextId = new AtomicInteger(10);
+        willAnswer(invocation -> {
+            Collection<Visit> saved = invocation.getArgument(0);
+            if (saved.stream().anyMatch(visit -> "duplicate".equals(visit.getDescription()))) {
+                throw new DataIntegrityViolationException("could not execute statement [Unique constraint violation: "
+                    + "INSERT INTO visits (pet_id, visit_date, description) VALUES (?, ?, ?)]");
+            }
+            saved.forEach(visit -> visit.setId(nextId.getAndIncrement()));
+            return null;
+        }).given(this.clinicService).saveVisits(any());
+    }
+
     @Test
     @WithMockUser(roles="OWNER_ADMIN")
     void testUpdateVisitSuccess() throws Exception {
@@ -212,6 +366,28 @@ class VisitRestControllerTests {
             .andExpect(jsonPath("$.description").value("rabies shot test"));
     }
 
+    @Test
+    @WithMockUser(roles="OWNER_ADMIN")
+    void testUpdateVisitsInBulkChecksETags() throws Exception {
+        given(this.clinicService.findVisitById(2)).willReturn(visits.get(0));
+        given(this.clinicService.findVisitById(3)).willReturn(visits.get(1));
+        String eTag = this.mockMvc.perform(get("/api/visits/2")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+        String updatesAsJSON = this.objectMapper.writeValueAsString(List.of(
+            new BulkVisitUpdateDto().id(2).etag(eTag).date(LocalDate.now()).description("rabies shot test"),
+            new BulkVisitUpdateDto().id(3).etag(eTag).date(LocalDate.now()).description("neutered test")));
+        this.mockMvc.perform(put("/api/visits/bulk")
+                .content(updatesAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isMultiStatus())
+            .andExpect(jsonPath("$.[0].status").value(204))
+            .andExpect(jsonPath("$.[0].location").value("/api/visits/2"))
+            .andExpect(jsonPath("$.[1].status").value(412));
+        verify(this.clinicService).saveVisits(List.of(visits.get(0)));
+        assertThat(visits.get(0).getDescription()).isEqualTo("rabies shot test");
+    }
+
     @Test
     @WithMockUser(roles="OWNER_ADMIN")
     void testUpdateVisitError() throws Exception {
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service.clinicService;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <p> Base class for {@link ClinicService} tests with the <code>read-replicas</code> profile. The replica is a second
+ * in-memory database, named after the primary of the subclass, initialized with the same scripts as the primary, and the replication-lag fallback outlasts the
+ * test. Outside of a request and without an authenticated user, the tests are the one background client. Subclasses
+ * select the repository layer. </p>
+ */
+@TestPropertySource(properties = {
+    "petclinic.datasource.replicas[0].url=${spring.datasource.url}-replica",
+    "petclinic.datasource.replicas[0].username=sa",
+    "petclinic.datasource.replicas[0].password=",
+    "petclinic.datasource.initialize-replicas=true",
+    "petclinic.datasource.replication-lag-fallback=1h"
+})
+abstract class AbstractClinicServiceReadReplicaTests {
+
+    @Autowired
+    protected ClinicService clinicService;
+
+    private JdbcTemplate replica;
+
+    @Autowired
+    void setReplicaUrl(@Value("${petclinic.datasource.replicas[0].url}") String replicaUrl) {
+        this.replica = new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "sa", ""));
+    }
+
+    @Test
+    void shouldReadFromReplicaUntilAWriteCommitsOnPrimary() {
+        this.replica.update("UPDATE owners SET last_name = 'Replica' WHERE id = 1");
+        assertThat(this.clinicService.findAllOwners()).extracting(Owner::getLastName).contains("Replica");
+
+        PetType petType = this.clinicService.findPetTypeById(1);
+        petType.setName("kitten");
+        this.clinicService.savePetType(petType);
+        try {
+            assertThat(this.clinicService.findAllOwners()).extracting(Owner::getLastName)
+                .doesNotContain("Replica")
+                .contains("Franklin");
+            assertThat(this.replica.queryForObject("SELECT name FROM types WHERE id = 1", String.class)).isEqualTo("cat");
+        } finally {
+            petType = this.clinicService.findPetTypeById(1);
+            petType.setName("cat");
+            this.clinicService.savePetType(petType);
+        }
+    }
+
+    @Test
+    void shouldKeepOnlyTheWritingClientOnThePrimary() {
+        this.replica.update("UPDATE owners SET last_name = 'Replica' WHERE id = 2");
+        as("alice", () -> renamePetType(2, "puppy"));
+        try {
+            assertThat(as("alice", this.clinicService::findAllOwners)).extracting(Owner::getLastName)
+                .doesNotContain("Replica");
+            assertThat(as("bob", this.clinicService::findAllOwners)).extracting(Owner::getLastName)
+                .contains("Replica");
+        } finally {
+            as("alice", () -> renamePetType(2, "dog"));
+        }
+    }
+
+    @Test
+    void shouldLoadCachedOwnersFromThePrimaryForEveryClient() {
+        as("alice", () -> renameOwner(4, "Davies"));
+        try {
+            assertThat(this.replica.queryForObject("SELECT last_name FROM owners WHERE id = 4", String.class))
+                .isEqualTo("Davis");
+            // bob's read fills the owners cache, which alice's next read is served from
+            assertThat(as("bob", () -> this.clinicService.findOwnerById(4)).getLastName()).isEqualTo("Davies");
+            assertThat(as("alice", () -> this.clinicService.findOwnerById(4)).getLastName()).isEqualTo("Davies");
+        } finally {
+            as("alice", () -> renameOwner(4, "Davis"));
+        }
+    }
+
+    private Owner renameOwner(int id, String lastName) {
+        Owner owner = this.clinicService.findOwnerById(id);
+        owner.setLastName(lastName);
+        this.clinicService.saveOwner(owner);
+        return owner;
+    }
+
+    private PetType renamePetType(int id, String name) {
+        PetType petType = this.clinicService.findPetTypeById(id);
+        petType.setName(name);
+        this.clinicService.savePetType(petType);
+        return petType;
+    }
+
+    private <T> T as(String user, Supplier<T> action) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+        try {
+            return action.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service.clinicService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <p> Base class asserting how many SQL statements the jpa and spring-data-jpa profiles issue for the
+ * {@link ClinicService} list, bulk insert and bulk delete use cases, and for loading the lazy collections of owners,
+ * pets and vets. Subclasses run with and without the <code>hibernate-tuning</code> profile and supply the expected
+ * counts of their own combination. Hibernate statistics must be enabled, and the second-level cache disabled so that
+ * every collection is read with SQL. </p>
+ */
+abstract class AbstractClinicServiceStatementCountTests {
+
+    @Autowired
+    protected ClinicService clinicService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.clear();
+    }
+
+    abstract long expectedFindAllVisitsStatements();
+
+    abstract long expectedLoadPetsOfOwnersStatements(int ownerCount);
+
+    abstract long expectedLoadVisitsOfPetsStatements(int petCount);
+
+    abstract long expectedLoadSpecialtiesOfVetsStatements(int vetCount);
+
+    abstract long expectedInsertVisitsStatements(int visitCount);
+
+    @Test
+    void shouldFindAllOwnersInOneStatement() {
+        // the owner-full entity graph joins pets, types and visits, with or without tuning
+        assertThat(this.clinicService.findAllOwners()).hasSize(10);
+        assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFindAllVisitsWithExpectedStatementCount() {
+        assertThat(this.clinicService.findAllVisits()).hasSize(4);
+        assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(expectedFindAllVisitsStatements());
+    }
+
+    @Test
+    void shouldFindAllVetsInOneStatement() {
+        // the specialties entity graph joins the specialties, with or without tuning
+        assertThat(this.clinicService.findAllVets()).hasSize(6);
+        assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    void shouldLoadLazyPetsOfOwnersWithExpectedStatementCount() {
+        List<Owner> owners = this.entityManager.createQuery("SELECT owner FROM Owner owner", Owner.class)
+            .getResultList();
+        owners.forEach(Owner::getPets);
+
+        assertThat(owners).hasSize(10);
+        assertThat(this.statistics.getPrepareStatementCount())
+            .isEqualTo(1 + expectedLoadPetsOfOwnersStatements(owners.size()));
+    }
+
+    @Test
+    @Transactional
+    void shouldLoadLazyVisitsOfPetsWithExpectedStatementCount() {
+        List<Pet> pets = this.entityManager.createQuery("SELECT pet FROM Pet pet JOIN FETCH pet.type "
+            + "JOIN FETCH pet.owner", Pet.class).getResultList();
+        pets.forEach(Pet::getVisits);
+
+        assertThat(pets).hasSize(13);
+        assertThat(this.statistics.getPrepareStatementCount())
+            .isEqualTo(1 + expectedLoadVisitsOfPetsStatements(pets.size()));
+    }
+
+    @Test
+    @Transactional
+    void shouldLoadLazySpecialtiesOfVetsWithExpectedStatementCount() {
+        List<Vet> vets = this.entityManager.createQuery("SELECT vet FROM Vet vet", Vet.class).getResultList();
+        vets.forEach(Vet::getSpecialties);
+
+        assertThat(vets).hasSize(6);
+        assertThat(this.statistics.getPrepareStatementCount())
+            .isEqualTo(1 + expectedLoadSpecialtiesOfVetsStatements(vets.size()));
+    }
+
+    @Test
+    void shouldPageOwnersWithoutPetsInOneStatement() {
+        assertThat(this.clinicService.findOwnerPage(0, 5, Set.of()).getContent()).hasSize(5);
+        assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    void shouldInsertVisitsWithExpectedStatementCount() {
+        Pet pet = this.clinicService.findPetById(7);
+        this.statistics.clear();
+
+        int visitCount = 20;
+        for (int i = 0; i < visitCount; i++) {
+            Visit visit = new Visit();
+            visit.setPet(pet);
+            visit.setDate(LocalDate.now());
+            visit.setDescription("imported visit " + i);
+            this.clinicService.saveVisit(visit);
+        }
+        this.entityManager.flush();
+
+        assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(expectedInsertVisitsStatements(visitCount));
+    }
+
+    @Test
+    @Transactional
+    void shouldDeletePetTypeWithPetsAndVisitsInThreeStatements() {
+        PetType cat = this.clinicService.findPetTypeById(1);
+        this.statistics.clear();
+
+        this.clinicService.deletePetType(cat);
+        this.entityManager.flush();
+
+        assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(this.clinicService.findAllPets()).hasSize(9).noneMatch(pet -> pet.getType().getId() == 1);
+        assertThat(this.clinicService.findAllVisits()).isEmpty();
+    }
+
+}
@@ -15,21 +15,31 @@
  */
 package org.springframework.samples.petclinic.service.clinicService;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.samples.petclinic.config.CacheConfig;
 import org.springframework.samples.petclinic.model.*;
 import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.util.Embed;
 import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.samples.petclinic.util.KeysetPage;
+import org.springframework.samples.petclinic.util.OwnerSearch;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * <p> Base class for {@link ClinicService} integration tests. </p> <p> Subclasses should specify Spring context
@@ -42,7 +52,9 @@ import static org.assertj.core.api.Assertions.assertThat;
  * type</em>. <li><strong>Transaction management</strong>, meaning each test method is executed in its own transaction,
  * which is automatically rolled back by default. Thus, even if tests insert or otherwise change database state, there
  * is no need for a teardown or cleanup script. <li> An {@link org.springframework.context.ApplicationContext
- * ApplicationContext} is also inherited and can be used for explicit bean lookup if necessary. </li> </ul>
+ * ApplicationContext} is also inherited and can be used for explicit bean lookup if necessary. </li> </ul> <p> Each
+ * subclass uses a database and second-level cache regions of its own, so the caches of its context never hold rows
+ * another context has changed. </p>
  *
  * @author Ken Krebs
  * @author Rod Johnson
@@ -56,6 +68,12 @@ abstract class AbstractClinicServiceTests {
     @Autowired
     protected ClinicService clinicService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     void shouldFindOwnersByLastName() {
         Collection<Owner> owners = this.clinicService.findOwnerByLastName("Davis");
@@ -65,6 +83,21 @@ abstract class AbstractClinicServiceTests {
         assertThat(owners.isEmpty()).isTrue();
     }
 
+    @Test
+    @Transactional
+    void shouldFindOwnersByLastNameIgnoringCaseAfterSaving() {
+        assertThat(this.clinicService.findOwnerByLastName("dAV")).extracting(Owner::getId).containsExactlyInAnyOrder(2, 4);
+
+        Owner owner = this.clinicService.findOwnerById(1);
+        owner.setLastName("MacFranklin");
+        this.clinicService.saveOwner(owner);
+        assertThat(this.clinicService.findOwnerByLastName("franklin")).isEmpty();
+        assertThat(this.clinicService.findOwnerPageByLastName("macf", 0, 5, Set.of()).getContent())
+            .extracting(Owner::getLastName).containsExactly("MacFranklin");
+        assertThat(this.clinicService.searchOwners(new OwnerSearch("MACF", null, null, null, null, null, false), null, 5, Set.of())
+            .getContent()).extracting(Owner::getId).containsExactly(1);
+    }
+
     @Test
     void shouldFindSingleOwnerWithPet() {
         Owner owner = this.clinicService.findOwnerById(1);
@@ -74,6 +107,12 @@ abstract class AbstractClinicServiceTests {
         assertThat(owner.getPets().get(0).getType().getName()).isEqualTo("cat");
     }
 
+    @Test
+    void shouldFindExistingOwnerIds() {
+        assertThat(this.clinicService.findExistingOwnerIds(List.of(1, 4, 999))).containsExactlyInAnyOrder(1, 4);
+        assertThat(this.clinicService.findExistingOwnerIds(List.of())).isEmpty();
+    }
+
     @Test
     @Transactional
     void shouldInsertOwner() {
@@ -93,6 +132,27 @@ abstract class AbstractClinicServiceTests {
         assertThat(owners.size()).isEqualTo(found + 1);
     }
 
+    @Test
+    @Transactional
+    void shouldInsertOwnersInBulk() {
+        int found = this.clinicService.findOwnerByLastName("Batch").size();
+
+        List<Owner> owners = new ArrayList<>();
+        for (String firstName : List.of("Ann", "Bob", "Cid")) {
+            Owner owner = new Owner();
+            owner.setFirstName(firstName);
+            owner.setLastName("Batch");
+            owner.setAddress("1, Bulk Street");
+            owner.setCity("Madison");
+            owner.setTelephone("6085551234");
+            owners.add(owner);
+        }
+        this.clinicService.saveOwners(owners);
+
+        assertThat(owners).extracting(Owner::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(this.clinicService.findOwnerByLastName("Batch")).hasSize(found + 3);
+    }
+
     @Test
     @Transactional
     void shouldUpdateOwner() {
@@ -116,6 +176,12 @@ abstract class AbstractClinicServiceTests {
 
     }
 
+    @Test
+    void shouldFindExistingPetIds() {
+        assertThat(this.clinicService.findExistingPetIds(List.of(7, 8, 999))).containsExactlyInAnyOrder(7, 8);
+        assertThat(this.clinicService.findExistingPetIds(List.of())).isEmpty();
+    }
+
 //    @Test
 //    void shouldFindAllPetTypes() {
 //        Collection<PetType> petTypes = this.clinicService.findPetTypes();
@@ -209,6 +275,18 @@ abstract class AbstractClinicServiceTests {
         assertThat(pet3.getName()).isEqualTo("Rosy");
     }
 
+    @Test
+    void shouldFindAllPetsWithTypeOwnerAndVisits(){
+        Collection<Pet> pets = this.clinicService.findAllPets();
+        assertThat(pets).hasSize(13);
+        Pet pet7 = EntityUtils.getById(pets, Pet.class, 7);
+        assertThat(pet7.getType().getName()).isEqualTo("cat");
+        assertThat(pet7.getOwner().getFirstName()).isEqualTo("Jean");
+        assertThat(pet7.getVisits()).extracting(Visit::getDescription).containsExactly("spayed", "rabies shot");
+        Pet pet1 = EntityUtils.getById(pets, Pet.class, 1);
+        assertThat(pet1.getVisits()).isEmpty();
+    }
+
     @Test
     @Transactional
     void shouldDeletePet(){
@@ -259,6 +337,54 @@ abstract class AbstractClinicServiceTests {
         assertThat(visits.size()).isEqualTo(found + 1);
     }
 
+    @Test
+    @Transactional
+    void shouldInsertVisitsInBulk() {
+        int found = this.clinicService.findVisitsByPetId(7).size();
+
+        List<Visit> visits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            // as mapped from a bulk request, which only gives the id of the pet
+            Pet pet = new Pet();
+            pet.setId(7);
+            Visit visit = new Visit();
+            visit.setPet(pet);
+            visit.setDate(LocalDate.now());
+            visit.setDescription("bulk visit " + i);
+            visits.add(visit);
+        }
+        this.clinicService.saveVisits(visits);
+
+        assertThat(visits).extracting(Visit::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(this.clinicService.findVisitsByPetId(7)).hasSize(found + 3);
+    }
+
+    @Test
+    @Transactional
+    void shouldInsertPetsInBulkWithTheirTypes() {
+        List<Pet> pets = new ArrayList<>();
+        for (String name : List.of("bulky", "batch")) {
+            Owner owner = new Owner();
+            owner.setId(6);
+            PetType type = new PetType();
+            type.setId(2);
+            Pet pet = new Pet();
+            pet.setName(name);
+            pet.setBirthDate(LocalDate.now());
+            pet.setOwner(owner);
+            pet.setType(type);
+            pets.add(pet);
+        }
+        this.clinicService.savePets(pets);
+
+        for (Pet pet : pets) {
+            assertThat(pet.getType().getName()).isEqualTo("dog");
+            Pet saved = this.clinicService.findPetById(pet.getId());
+            assertThat(saved.getName()).isEqualTo(pet.getName());
+            assertThat(saved.getOwner().getId()).isEqualTo(6);
+        }
+    }
+
     @Test
     @Transactional
     void shouldUpdateVisit(){
@@ -291,6 +417,12 @@ abstract class AbstractClinicServiceTests {
     	assertThat(vet.getLastName()).isEqualTo("Carter");
     }
 
+    @Test
+    void shouldFindVetWithSpecialtiesById(){
+        Vet vet = this.clinicService.findVetById(3);
+        assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("dentistry", "surgery");
+    }
+
     @Test
     @Transactional
     void shouldInsertVet() {
@@ -320,6 +452,18 @@ abstract class AbstractClinicServiceTests {
         assertThat(vet.getLastName()).isEqualTo(newLastName);
     }
 
+    @Test
+    @Transactional
+    void shouldUpdateVetSpecialties(){
+        Vet vet = this.clinicService.findVetById(3);
+        Specialty radiology = this.clinicService.findSpecialtyById(1);
+        Specialty surgery = this.clinicService.findSpecialtyById(2);
+        vet.setSpecialties(List.of(radiology, surgery));
+        this.clinicService.saveVet(vet);
+        vet = this.clinicService.findVetById(3);
+        assertThat(vet.getSpecialties()).extracting(Specialty::getName).containsExactly("radiology", "surgery");
+    }
+
     @Test
     @Transactional
     void shouldDeleteVet(){
@@ -342,6 +486,134 @@ abstract class AbstractClinicServiceTests {
         assertThat(owner3.getFirstName()).isEqualTo("Eduardo");
     }
 
+    @Test
+    void shouldFindAllOwnersWithPetsAndVisits(){
+        Collection<Owner> owners = this.clinicService.findAllOwners();
+        Owner owner3 = EntityUtils.getById(owners, Owner.class, 3);
+        assertThat(owner3.getPets()).extracting(Pet::getName).containsExactly("Jewel", "Rosy");
+        assertThat(owner3.getPets().get(0).getType().getName()).isEqualTo("dog");
+        Owner owner6 = EntityUtils.getById(owners, Owner.class, 6);
+        assertThat(owner6.getPets()).hasSize(2);
+        Pet pet7 = owner6.getPet("Samantha");
+        assertThat(pet7.getOwner()).isSameAs(owner6);
+        assertThat(pet7.getVisits()).hasSize(2);
+        assertThat(pet7.getType().getName()).isEqualTo("cat");
+    }
+
+    @Test
+    void shouldPageOwnersByIdWithPetsAndVisits(){
+        KeysetPage<Owner> first = this.clinicService.findOwnerPage(0, 4, Embed.ALL);
+        assertThat(first.getContent()).extracting(Owner::getId).containsExactly(1, 2, 3, 4);
+        assertThat(first.getNextCursor()).isEqualTo(4);
+        KeysetPage<Owner> second = this.clinicService.findOwnerPage(first.getNextCursor(), 4, Embed.ALL);
+        assertThat(second.getContent()).extracting(Owner::getId).containsExactly(5, 6, 7, 8);
+        Owner owner6 = second.getContent().get(1);
+        assertThat(owner6.getPets()).hasSize(2);
+        assertThat(owner6.getPet("Samantha").getVisits()).hasSize(2);
+        KeysetPage<Owner> last = this.clinicService.findOwnerPage(second.getNextCursor(), 4, Embed.ALL);
+        assertThat(last.getContent()).extracting(Owner::getId).containsExactly(9, 10);
+        assertThat(last.hasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldPageOwnersByLastName(){
+        KeysetPage<Owner> first = this.clinicService.findOwnerPageByLastName("Davis", 0, 1, Embed.ALL);
+        assertThat(first.getContent()).extracting(Owner::getId).containsExactly(2);
+        assertThat(first.hasNext()).isTrue();
+        KeysetPage<Owner> second = this.clinicService.findOwnerPageByLastName("Davis", first.getNextCursor(), 1, Embed.ALL);
+        assertThat(second.getContent()).extracting(Owner::getId).containsExactly(4);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldPageOwnersAndPetsWithTheRequestedAssociations(){
+        KeysetPage<Owner> summaries = this.clinicService.findOwnerPage(5, 2, Set.of());
+        assertThat(summaries.getContent()).extracting(Owner::getLastName).containsExactly("Coleman", "Black");
+        assertThat(summaries.getNextCursor()).isEqualTo(7);
+        assertThat(this.clinicService.findOwnerPageByLastName("Davis", 0, 5, Set.of()).getContent())
+            .extracting(Owner::getId).containsExactly(2, 4);
+
+        Owner owner6 = this.clinicService.findOwnerPage(5, 1, Set.of(Embed.PETS)).getContent().get(0);
+        assertThat(owner6.getPets()).extracting(Pet::getName).containsExactly("Max", "Samantha");
+        assertThat(owner6.getPet("Samantha").getType().getName()).isEqualTo("cat");
+
+        KeysetPage<Pet> pets = this.clinicService.findPetPage(6, 2, Set.of());
+        assertThat(pets.getContent()).extracting(Pet::getId).containsExactly(7, 8);
+        assertThat(pets.getContent().get(0).getType().getName()).isEqualTo("cat");
+        assertThat(pets.getContent().get(0).getOwner().getId()).isEqualTo(6);
+        assertThat(pets.getNextCursor()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldSearchOwnersByCombinedFiltersInTheRequestedOrder(){
+        OwnerSearch byLastName = new OwnerSearch(null, "Madison", null, null, null, OwnerSearch.SortKey.LAST_NAME, false);
+        KeysetPage<Owner> first = this.clinicService.searchOwners(byLastName, null, 2, Set.of());
+        assertThat(first.getContent()).extracting(Owner::getLastName).containsExactly("Escobito", "Franklin");
+        assertThat(first.hasNext()).isTrue();
+        KeysetPage<Owner> second = this.clinicService.searchOwners(byLastName, byLastName.after(first.getContent().get(1)), 2, Set.of(Embed.PETS));
+        assertThat(second.getContent()).extracting(Owner::getId).containsExactly(5, 9);
+        assertThat(second.getContent().get(0).getPets()).extracting(Pet::getName).containsExactly("George");
+        assertThat(second.hasNext()).isFalse();
+
+        // ties on the city are ordered by id in the same direction
+        OwnerSearch byCityDescending = new OwnerSearch(null, null, null, null, null, OwnerSearch.SortKey.CITY, true);
+        KeysetPage<Owner> cities = this.clinicService.searchOwners(byCityDescending, null, 4, Set.of());
+        assertThat(cities.getContent()).extracting(Owner::getId).containsExactly(4, 10, 2, 7);
+        assertThat(this.clinicService.searchOwners(byCityDescending, byCityDescending.after(cities.getContent().get(3)), 2, Embed.ALL)
+            .getContent()).extracting(Owner::getId).containsExactly(6, 3);
+
+        assertThat(this.clinicService.searchOwners(new OwnerSearch(null, null, null, null, "cat", null, false), null, 5, Set.of())
+            .getContent()).extracting(Owner::getId).containsExactly(1, 6, 10);
+        assertThat(this.clinicService.searchOwners(new OwnerSearch(null, null, null, "Lu", "dog", null, true), null, 5, Set.of())
+            .getContent()).extracting(Owner::getId).containsExactly(10);
+        assertThat(this.clinicService.searchOwners(new OwnerSearch(null, null, null, "Sly", "dog", null, false), null, 5, Set.of())
+            .getContent()).isEmpty();
+        assertThat(this.clinicService.searchOwners(new OwnerSearch("Da", null, "6085553198", null, null, null, false), null, 5, Set.of())
+            .getContent()).extracting(Owner::getId).containsExactly(4);
+    }
+
+    @Test
+    void shouldPagePetsVisitsAndVets(){
+        KeysetPage<Pet> pets = this.clinicService.findPetPage(6, 2, Embed.ALL);
+        assertThat(pets.getContent()).extracting(Pet::getId).containsExactly(7, 8);
+        assertThat(pets.getContent().get(0).getVisits()).hasSize(2);
+        assertThat(pets.getContent().get(0).getType().getName()).isEqualTo("cat");
+        assertThat(pets.getNextCursor()).isEqualTo(8);
+
+        KeysetPage<Visit> visits = this.clinicService.findVisitPage(2, 10);
+        assertThat(visits.getContent()).extracting(Visit::getId).containsExactly(3, 4);
+        assertThat(visits.hasNext()).isFalse();
+
+        KeysetPage<Vet> vets = this.clinicService.findVetPage(0, 3);
+        assertThat(vets.getContent()).extracting(Vet::getId).containsExactly(1, 2, 3);
+        assertThat(vets.getContent().get(1).getNrOfSpecialties()).isEqualTo(1);
+        assertThat(this.clinicService.findVetPage(vets.getNextCursor(), 3).getContent()).extracting(Vet::getId).containsExactly(4, 5, 6);
+    }
+
+    @Test
+    void shouldStreamAllPetsWithTypeAndVisitsInIdOrder(){
+        List<Pet> pets = new ArrayList<>();
+        this.clinicService.streamAllPets(pets::add);
+        assertThat(pets).extracting(Pet::getId).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13);
+        Pet pet7 = pets.get(6);
+        assertThat(pet7.getName()).isEqualTo("Samantha");
+        assertThat(pet7.getType().getName()).isEqualTo("cat");
+        assertThat(pet7.getOwner().getId()).isEqualTo(6);
+        assertThat(pet7.getVisits()).hasSize(2);
+        assertThat(pets.get(7).getVisits()).hasSize(2);
+        assertThat(pets.get(0).getVisits()).isEmpty();
+    }
+
+    @Test
+    void shouldStreamAllVisitsInIdOrder(){
+        List<Visit> visits = new ArrayList<>();
+        this.clinicService.streamAllVisits(visits::add);
+        assertThat(visits).extracting(Visit::getId).containsExactly(1, 2, 3, 4);
+        assertThat(visits).extracting(visit -> visit.getPet().getId()).containsExactly(7, 8, 8, 7);
+        assertThat(visits.get(0).getDescription()).isEqualTo("rabies shot");
+    }
+
     @Test
     @Transactional
     void shouldDeleteOwner(){
@@ -370,6 +642,112 @@ abstract class AbstractClinicServiceTests {
         assertThat(petType3.getName()).isEqualTo("lizard");
     }
 
+    @Test
+    void shouldServeOwnersAndReferenceDataFromApplicationCache() {
+        this.clinicService.findOwnerById(1);
+        this.clinicService.findVetById(3);
+        this.clinicService.findAllVets();
+        this.clinicService.findPetTypeById(1);
+        this.clinicService.findAllPetTypes();
+        this.clinicService.findAllSpecialties();
+        List<String> cacheNames = List.of(CacheConfig.OWNERS, CacheConfig.VETS, CacheConfig.ALL_VETS,
+            CacheConfig.PET_TYPES, CacheConfig.ALL_PET_TYPES, CacheConfig.ALL_SPECIALTIES);
+        List<Double> hits = cacheNames.stream().map(this::cacheHits).toList();
+
+        assertThat(this.clinicService.findOwnerById(1).getPets()).extracting(Pet::getName).containsExactly("Leo");
+        assertThat(this.clinicService.findVetById(3).getSpecialties()).hasSize(2);
+        assertThat(this.clinicService.findAllVets()).hasSize(6);
+        assertThat(this.clinicService.findPetTypeById(1).getName()).isEqualTo("cat");
+        assertThat(this.clinicService.findAllPetTypes()).hasSize(6);
+        assertThat(this.clinicService.findAllSpecialties()).hasSize(3);
+        for (int i = 0; i < cacheNames.size(); i++) {
+            assertThat(cacheHits(cacheNames.get(i))).as(cacheNames.get(i)).isEqualTo(hits.get(i) + 1);
+        }
+    }
+
+    @Test
+    void shouldNotExposeCachedEntitiesToEditsOfCallers() {
+        Owner owner = this.clinicService.findOwnerById(1);
+        owner.setTelephone("6085550000");
+        owner.getPets().get(0).setName("Rex");
+        PetType petType = this.clinicService.findPetTypeById(1);
+        petType.setName("tiger");
+        petType.setVersion(petType.getVersion() + 1);
+
+        Owner cached = this.clinicService.findOwnerById(1);
+        assertThat(cached).isNotSameAs(owner);
+        assertThat(cached.getTelephone()).isEqualTo("6085551023");
+        assertThat(cached.getPets()).extracting(Pet::getName).containsExactly("Leo");
+        PetType cachedPetType = this.clinicService.findPetTypeById(1);
+        assertThat(cachedPetType.getName()).isEqualTo("cat");
+        assertThat(cachedPetType.getVersion()).isEqualTo(petType.getVersion() - 1);
+    }
+
+    private double cacheHits(String cacheName) {
+        return this.meterRegistry.get("cache.gets").tag("cache", cacheName).tag("result", "hit").functionCounter().count();
+    }
+
+    @Test
+    void shouldEvictCachedOwnerOnSave() {
+        Owner owner = this.clinicService.findOwnerById(1);
+        String telephone = owner.getTelephone();
+        owner.setTelephone("6085550000");
+        this.clinicService.saveOwner(owner);
+
+        Owner reloaded = this.clinicService.findOwnerById(1);
+        try {
+            assertThat(reloaded).isNotSameAs(owner);
+            assertThat(reloaded.getTelephone()).isEqualTo("6085550000");
+        } finally {
+            reloaded.setTelephone(telephone);
+            this.clinicService.saveOwner(reloaded);
+        }
+    }
+
+    @Test
+    void shouldEvictOnlyTheOwnersOfBulkSavedVisits() {
+        this.clinicService.findOwnerById(1);
+        this.clinicService.findOwnerById(6);
+        // rolled back, so that the visit is not left behind; evictions take effect within the transaction already
+        new TransactionTemplate(this.transactionManager).executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            Pet samantha = new Pet();
+            samantha.setId(7);
+            Visit visit = new Visit();
+            visit.setPet(samantha);
+            visit.setDate(LocalDate.now());
+            visit.setDescription("bulk visit");
+            this.clinicService.saveVisits(List.of(visit));
+
+            double hits = cacheHits(CacheConfig.OWNERS);
+            this.clinicService.findOwnerById(1);
+            assertThat(cacheHits(CacheConfig.OWNERS)).isEqualTo(hits + 1);
+            Owner owner = this.clinicService.findOwnerById(6);
+            assertThat(cacheHits(CacheConfig.OWNERS)).isEqualTo(hits + 1);
+            assertThat(owner.getPet(7).getVisits()).extracting(Visit::getId).contains(visit.getId());
+        });
+    }
+
+    @Test
+    void shouldEvictCachedVetsWhenSpecialtyChanges() {
+        Vet vet = this.clinicService.findVetById(3);
+        Collection<Vet> vets = this.clinicService.findAllVets();
+        Specialty specialty = this.clinicService.findSpecialtyById(2);
+        String name = specialty.getName();
+        specialty.setName("orthopedics");
+        this.clinicService.saveSpecialty(specialty);
+        try {
+            Vet reloaded = this.clinicService.findVetById(3);
+            assertThat(reloaded).isNotSameAs(vet);
+            assertThat(reloaded.getSpecialties()).extracting(Specialty::getName).contains("orthopedics");
+            assertThat(this.clinicService.findAllVets()).isNotSameAs(vets);
+        } finally {
+            specialty = this.clinicService.findSpecialtyById(2);
+            specialty.setName(name);
+            this.clinicService.saveSpecialty(specialty);
+        }
+    }
+
     @Test
     @Transactional
     void shouldInsertPetType() {
@@ -398,6 +776,50 @@ abstract class AbstractClinicServiceTests {
         assertThat(petType.getName()).isEqualTo(newLastName);
     }
 
+    @Test
+    void shouldUpdateOwnersInBulkAndRejectStaleCopy() {
+        Owner owner = this.clinicService.findOwnerById(6);
+        Owner stale = this.clinicService.findOwnerById(6);
+        String city = owner.getCity();
+        owner.setCity(city + "X");
+        this.clinicService.saveOwners(List.of(owner));
+        try {
+            assertThat(this.clinicService.findOwnerById(6).getCity()).isEqualTo(city + "X");
+            stale.setCity(city + "Y");
+            assertThatThrownBy(() -> this.clinicService.saveOwners(List.of(stale)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+            assertThat(this.clinicService.findOwnerById(6).getCity()).isEqualTo(city + "X");
+        } finally {
+            Owner current = this.clinicService.findOwnerById(6);
+            current.setCity(city);
+            this.clinicService.saveOwner(current);
+        }
+    }
+
+    @Test
+    void shouldIncrementVersionOnUpdateAndRejectStaleCopy() {
+        PetType petType = this.clinicService.findPetTypeById(2);
+        String name = petType.getName();
+        int version = petType.getVersion();
+        petType.setName(name + "X");
+        this.clinicService.savePetType(petType);
+
+        PetType updated = this.clinicService.findPetTypeById(2);
+        try {
+            assertThat(updated.getVersion()).isEqualTo(version + 1);
+            PetType stale = new PetType();
+            stale.setId(2);
+            stale.setName(name + "Y");
+            stale.setVersion(version);
+            assertThatThrownBy(() -> this.clinicService.savePetType(stale))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+            assertThat(this.clinicService.findPetTypeById(2).getName()).isEqualTo(name + "X");
+        } finally {
+            updated.setName(name);
+            this.clinicService.savePetType(updated);
+        }
+    }
+
     @Test
     @Transactional
     void shouldDeletePetType(){
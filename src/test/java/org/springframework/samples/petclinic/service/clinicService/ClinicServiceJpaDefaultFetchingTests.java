@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service.clinicService;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * <p> Statement counts of the jpa profile without the hibernate-tuning profile.
+ *
+ * @see AbstractClinicServiceStatementCountTests </p>
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:hsqldb:mem:clinic-service-jpa-default-fetching",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@ActiveProfiles({"jpa", "hsqldb"})
+class ClinicServiceJpaDefaultFetchingTests extends AbstractClinicServiceStatementCountTests {
+
+    @Override
+    long expectedFindAllVisitsStatements() {
+        // one select per distinct pet of the visits
+        return 1 + 2;
+    }
+
+    @Override
+    long expectedLoadPetsOfOwnersStatements(int ownerCount) {
+        // one select per owner
+        return ownerCount;
+    }
+
+    @Override
+    long expectedLoadVisitsOfPetsStatements(int petCount) {
+        return petCount;
+    }
+
+    @Override
+    long expectedLoadSpecialtiesOfVetsStatements(int vetCount) {
+        return vetCount;
+    }
+
+    @Override
+    long expectedInsertVisitsStatements(int visitCount) {
+        // one block of 50 sequence values, then one insert statement per visit
+        return 1 + visitCount;
+    }
+}
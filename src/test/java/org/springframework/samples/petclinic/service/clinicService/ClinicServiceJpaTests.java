@@ -1,9 +1,26 @@
 package org.springframework.samples.petclinic.service.clinicService;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.samples.petclinic.config.CacheConfig;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.Embed;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * <p> Integration test using the jpa profile.
@@ -14,15 +31,78 @@ import org.springframework.test.context.ActiveProfiles;
  * @see AbstractClinicServiceTests AbstractClinicServiceTests for more details. </p>
  */
 
-@SpringBootTest
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:hsqldb:mem:clinic-service-jpa",
+    "spring.jpa.properties.hibernate.cache.region_prefix=clinic-service-jpa",
+    "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create"
+})
 @ActiveProfiles({"jpa", "hsqldb"})
 class ClinicServiceJpaTests extends AbstractClinicServiceTests {
 
     @Autowired
     EntityManager entityManager;
 
+    @Autowired
+    CacheManager cacheManager;
+
     @Override
     void clearCache() {
         entityManager.clear();
     }
+
+    @Test
+    void shouldFetchOnlyTheAssociationsOfTheUseCaseGraph() {
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        Visit visit = this.clinicService.findVisitById(1);
+        assertThat(persistenceUnitUtil.isLoaded(visit.getPet(), "visits")).isFalse();
+        assertThat(persistenceUnitUtil.isLoaded(visit.getPet().getOwner(), "pets")).isFalse();
+
+        Owner owner = this.clinicService.findOwnerById(6);
+        assertThat(persistenceUnitUtil.isLoaded(owner, "pets")).isTrue();
+        assertThat(owner.getPets()).allSatisfy(pet -> assertThat(persistenceUnitUtil.isLoaded(pet, "visits")).isTrue());
+    }
+
+    @Test
+    void shouldFetchOnlyTheEmbeddedAssociationsOfAPage() {
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        Owner summary = this.clinicService.findOwnerPage(5, 1, Set.of()).getContent().get(0);
+        assertThat(persistenceUnitUtil.isLoaded(summary, "pets")).isFalse();
+
+        Owner withPets = this.clinicService.findOwnerPage(5, 1, Set.of(Embed.PETS)).getContent().get(0);
+        assertThat(persistenceUnitUtil.isLoaded(withPets, "pets")).isTrue();
+        assertThat(withPets.getPets()).allSatisfy(pet -> assertThat(persistenceUnitUtil.isLoaded(pet, "visits")).isFalse());
+
+        Pet pet = this.clinicService.findPetPage(6, 1, Set.of()).getContent().get(0);
+        assertThat(persistenceUnitUtil.isLoaded(pet, "visits")).isFalse();
+        assertThat(pet.getType().getName()).isEqualTo("cat");
+    }
+
+    @Test
+    @Transactional
+    void shouldDetachStreamedEntities() {
+        List<Object> streamed = new ArrayList<>();
+        this.clinicService.streamAllPets(streamed::add);
+        this.clinicService.streamAllVisits(streamed::add);
+        assertThat(streamed).hasSize(17).noneMatch(entityManager::contains);
+        assertThat(streamed).filteredOn(Pet.class::isInstance).map(Pet.class::cast)
+            .flatMap(pet -> List.of(pet.getType(), pet.getOwner())).noneMatch(entityManager::contains);
+    }
+
+    @Test
+    void shouldServeReferenceDataFromSecondLevelCache() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        this.clinicService.findPetTypeById(2);
+        this.clinicService.findSpecialtyById(2);
+        // the pet type is in the application cache as well, which would answer before Hibernate is asked
+        cacheManager.getCache(CacheConfig.PET_TYPES).evict(2);
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(this.clinicService.findPetTypeById(2).getName()).isEqualTo("dog");
+        assertThat(this.clinicService.findSpecialtyById(2).getName()).isEqualTo("surgery");
+        assertThat(statistics.getSecondLevelCacheHitCount() - hits).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service.clinicService;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * <p> Read replica routing with the spring-data-jpa profile.
+ *
+ * @see AbstractClinicServiceReadReplicaTests </p>
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:hsqldb:mem:clinic-service-spring-data-jpa-read-replica",
+    "spring.jpa.properties.hibernate.cache.region_prefix=clinic-service-spring-data-jpa-read-replica",
+    "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create"
+})
+@ActiveProfiles({"spring-data-jpa", "hsqldb", "read-replicas"})
+class ClinicServiceSpringDataJpaReadReplicaTests extends AbstractClinicServiceReadReplicaTests {
+}
@@ -1,9 +1,20 @@
 package org.springframework.samples.petclinic.service.clinicService;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.samples.petclinic.config.CacheConfig;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * <p> Integration test using the 'Spring Data' profile.
@@ -12,15 +23,63 @@ import org.springframework.test.context.ActiveProfiles;
  * @see AbstractClinicServiceTests AbstractClinicServiceTests for more details. </p>
  */
 
-@SpringBootTest
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:hsqldb:mem:clinic-service-spring-data-jpa",
+    "spring.jpa.properties.hibernate.cache.region_prefix=clinic-service-spring-data-jpa",
+    "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create"
+})
 @ActiveProfiles({"spring-data-jpa", "hsqldb"})
 class ClinicServiceSpringDataJpaTests extends AbstractClinicServiceTests {
 
     @Autowired
     EntityManager entityManager;
 
+    @Autowired
+    CacheManager cacheManager;
+
     @Override
     void clearCache() {
         entityManager.clear();
     }
+
+    @Test
+    void shouldFetchOnlyTheAssociationsOfTheUseCaseGraph() {
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        Visit visit = this.clinicService.findVisitById(1);
+        assertThat(persistenceUnitUtil.isLoaded(visit.getPet(), "visits")).isFalse();
+        assertThat(persistenceUnitUtil.isLoaded(visit.getPet().getOwner(), "pets")).isFalse();
+
+        Owner owner = this.clinicService.findOwnerById(6);
+        assertThat(persistenceUnitUtil.isLoaded(owner, "pets")).isTrue();
+        assertThat(owner.getPets()).allSatisfy(pet -> assertThat(persistenceUnitUtil.isLoaded(pet, "visits")).isTrue());
+    }
+
+    @Test
+    @Transactional
+    void shouldReadListsThroughUnmanagedProjections() {
+        assertThat(this.clinicService.findAllOwners()).hasSize(10).noneMatch(entityManager::contains);
+        assertThat(this.clinicService.findOwnerByLastName("Davis")).hasSize(2).noneMatch(entityManager::contains);
+        assertThat(this.clinicService.findAllPets()).hasSize(13).noneMatch(entityManager::contains);
+        assertThat(this.clinicService.findAllVets()).hasSize(6).noneMatch(entityManager::contains);
+        this.clinicService.streamAllPets(pet -> assertThat(entityManager.contains(pet)).isFalse());
+        this.clinicService.streamAllVisits(visit -> assertThat(entityManager.contains(visit)).isFalse());
+    }
+
+    @Test
+    void shouldServeReferenceDataFromSecondLevelCache() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        this.clinicService.findPetTypeById(2);
+        this.clinicService.findSpecialtyById(2);
+        // the pet type is in the application cache as well, which would answer before Hibernate is asked
+        cacheManager.getCache(CacheConfig.PET_TYPES).evict(2);
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(this.clinicService.findPetTypeById(2).getName()).isEqualTo("dog");
+        assertThat(this.clinicService.findSpecialtyById(2).getName()).isEqualTo("surgery");
+        assertThat(statistics.getSecondLevelCacheHitCount() - hits).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
 }
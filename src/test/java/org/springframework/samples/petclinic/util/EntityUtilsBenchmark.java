@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * JMH benchmark joining child rows against a collection of owners, comparing repeated
+ * {@link EntityUtils#getById} scans with a single {@link EntityUtils#indexById} index.
+ * <p>
+ * Run it from the IDE or with
+ * <code>mvn test-compile exec:java -Dexec.mainClass=org.springframework.samples.petclinic.util.EntityUtilsBenchmark -Dexec.classpathScope=test</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityUtilsBenchmark {
+
+    /**
+     * Number of child rows (for example pets) resolved against the owners on each invocation.
+     */
+    private static final int JOINED_ROWS = 1_000;
+
+    @Param({"10000", "100000"})
+    private int entities;
+
+    private List<Owner> owners;
+
+    private int[] ownerIds;
+
+    @Setup
+    public void setUp() {
+        this.owners = new ArrayList<>(this.entities);
+        for (int id = 1; id <= this.entities; id++) {
+            Owner owner = new Owner();
+            owner.setId(id);
+            this.owners.add(owner);
+        }
+        Random random = new Random(42);
+        this.ownerIds = new int[JOINED_ROWS];
+        for (int i = 0; i < JOINED_ROWS; i++) {
+            this.ownerIds[i] = random.nextInt(this.entities) + 1;
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (int ownerId : this.ownerIds) {
+            blackhole.consume(EntityUtils.getById(this.owners, Owner.class, ownerId));
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole blackhole) {
+        EntityIndex<Owner> index = EntityUtils.indexById(this.owners, Owner.class);
+        for (int ownerId : this.ownerIds) {
+            blackhole.consume(index.getById(ownerId));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EntityUtilsBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2002-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * Tests for the id lookups of {@link EntityUtils} and {@link EntityIndex}.
+ */
+class EntityUtilsTests {
+
+    private static List<Owner> owners(int count) {
+        List<Owner> owners = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Owner owner = new Owner();
+            owner.setId(id * 7);
+            owner.setLastName("owner" + id);
+            owners.add(owner);
+        }
+        return owners;
+    }
+
+    @Test
+    void shouldFindEveryEntityOfTheIndex() {
+        List<Owner> owners = owners(10_000);
+
+        EntityIndex<Owner> index = EntityUtils.indexById(owners, Owner.class);
+
+        assertThat(index.size()).isEqualTo(10_000);
+        for (Owner owner : owners) {
+            assertThat(index.getById(owner.getId())).isSameAs(owner);
+        }
+    }
+
+    @Test
+    void shouldGrowWhenEntitiesAreAdded() {
+        EntityIndex<Owner> index = new EntityIndex<>(Owner.class);
+        List<Owner> owners = owners(1_000);
+
+        owners.forEach(index::add);
+
+        assertThat(index.size()).isEqualTo(1_000);
+        assertThat(index.get(7 * 500)).isSameAs(owners.get(499));
+        assertThat(index.get(3)).isNull();
+    }
+
+    @Test
+    void shouldReplaceEntityWithSameId() {
+        EntityIndex<Owner> index = new EntityIndex<>(Owner.class);
+        Owner first = owners(1).get(0);
+        Owner second = owners(1).get(0);
+
+        index.add(first);
+        index.add(second);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.get(first.getId())).isSameAs(second);
+    }
+
+    @Test
+    void shouldFailWhenIdIsNotIndexed() {
+        EntityIndex<Owner> index = EntityUtils.indexById(owners(3), Owner.class);
+
+        assertThatThrownBy(() -> index.getById(4))
+            .isInstanceOf(ObjectRetrievalFailureException.class);
+    }
+
+}